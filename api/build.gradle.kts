@@ -12,6 +12,17 @@ dependencies {
     compileOnly("com.github.ben-manes.caffeine:caffeine:3.1.8")
     implementation("dev.nipafx.args:record-args:0.9.2")
     implementation("org.mongodb:mongodb-driver-sync:5.3.0")
+    implementation("org.mongodb:mongodb-driver-reactivestreams:5.3.0")
     implementation("redis.clients:jedis:5.2.0")
     implementation("com.amihaiemil.web:eo-yaml:8.0.6")
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testImplementation("com.google.guava:guava:33.3.0-jre")
+    testImplementation("com.github.ben-manes.caffeine:caffeine:3.1.8")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
\ No newline at end of file
@@ -12,7 +12,7 @@ public class MongoBanAPI {
     public static final Logger logger = LoggerFactory.getLogger("MongoBan");
 
     public final static List<String> EMPTY_LIST = Collections.newUnmodifiableList();
-    public final static List<String> FLAG_LIST = Collections.newUnmodifiableList("--target", "--duration", "--reason", "--strict");
+    public final static List<String> FLAG_LIST = Collections.newUnmodifiableList("--target", "--duration", "--reason", "--strict", "--force");
     public final static List<String> REASON_SUGGEST = Collections.newUnmodifiableList("Griefing", "Cheating", "Spamming", "Abusing", "OtherReason");
     public final static List<String> TIME_SUGGEST = Collections.newUnmodifiableList("s", "m", "h", "d", "mo", "y", "forever");
 
@@ -1,12 +1,27 @@
 package one.tranic.mongoban.api;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
 import one.tranic.mongoban.api.cache.CaffeineCache;
+import one.tranic.mongoban.api.cache.NearCache;
 import one.tranic.mongoban.api.cache.RedisCache;
+import one.tranic.mongoban.api.config.Config;
 import one.tranic.mongoban.api.config.NewConfig;
 import one.tranic.mongoban.api.database.Database;
+import one.tranic.mongoban.api.database.DatabaseBanBatcher;
+import one.tranic.mongoban.api.database.DatabaseMigration;
+import one.tranic.mongoban.api.database.DatabasePlayerWriter;
 import one.tranic.t.base.cache.Cache;
+import one.tranic.t.utils.Collections;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
 /**
  * MongoDataAPI provides a static API for managing database and cache instances.
  */
@@ -33,6 +48,7 @@ public class MongoDataAPI {
     public synchronized static void setDatabase(@NotNull Database database) throws SecurityException, IllegalArgumentException {
         if (!isCallerAllowed()) throw new SecurityException("Unauthorized access to setDatabase method.");
         if (MongoDataAPI.database != null) {
+            MongoDataAPI.database.service().close();
             MongoDataAPI.database.disconnect();
         }
         MongoDataAPI.database = database;
@@ -65,12 +81,15 @@ public class MongoDataAPI {
 
     /**
      * Closes and releases the resources associated with the current database and cache instances.
+     * <p>
+     * Pending write-behind updates are flushed before the database connection is closed.
      *
      * @throws SecurityException if the caller is not authorized to use this method
      */
     public synchronized static void close() throws Exception {
         if (!isCallerAllowed()) throw new SecurityException("Unauthorized access to close method.");
         if (MongoDataAPI.database != null) {
+            MongoDataAPI.database.service().close();
             MongoDataAPI.database.disconnect();
             MongoDataAPI.database = null;
         }
@@ -104,21 +123,94 @@ public class MongoDataAPI {
     public synchronized static void reconnect() throws Exception {
         if (!isCallerAllowed()) throw new SecurityException("Unauthorized access to reconnect method.");
 
-        Cache cache = NewConfig.getConfig().cache() == 0 ? new CaffeineCache() :
-                new RedisCache(
-                        NewConfig.getConfig().redis().host(),
-                        NewConfig.getConfig().redis().port(),
-                        NewConfig.getConfig().redis().db(),
-                        NewConfig.getConfig().redis().user(),
-                        NewConfig.getConfig().redis().password());
+        Config.redis redis = NewConfig.getConfig().redis();
+        Config.caching caching = NewConfig.getConfig().caching();
+        Cache cache = switch (NewConfig.getConfig().cache()) {
+            case 1 -> new RedisCache(redis.host(), redis.port(), redis.db(), redis.user(), redis.password());
+            case 2 -> new NearCache(redis.host(), redis.port(), redis.db(), redis.user(), redis.password(),
+                    caching.localMemory() * 1024 * 1024, Duration.ofSeconds(caching.localTtl()));
+            default -> new CaffeineCache(caching.memory() * 1024 * 1024, Duration.ofMinutes(1440));
+        };
         MongoDataAPI.setCache(cache);
         Database database = new Database(
-                NewConfig.getConfig().database().host(),
-                NewConfig.getConfig().database().port(),
+                clientSettings(NewConfig.getConfig().database()),
                 NewConfig.getConfig().database().database(),
-                NewConfig.getConfig().database().user(),
-                NewConfig.getConfig().database().password(),
-                cache);
+                cache,
+                caching.ttl(),
+                caching.negativeTtl());
         MongoDataAPI.setDatabase(database);
+
+        Config.login login = NewConfig.getConfig().login();
+        if (login.batch()) database.ban().setBatcher(new DatabaseBanBatcher(database.ban(), login.batchWindow(), login.batchSize()));
+        // Indexes are built once legacy documents have been rewritten, both off the calling thread.
+        new DatabaseMigration(database).migrate().thenCompose(ignored -> database.indexes().ensure());
+        database.ban().range().load();
+        if (login.index()) database.ban().index().load();
+        database.ban().scheduleRefresh(login.refresh());
+
+        Config.writer writer = NewConfig.getConfig().writer();
+        if (writer.enable()) database.player().setWriter(new DatabasePlayerWriter(
+                database.player(),
+                writer.interval(),
+                writer.batchSize(),
+                writer.capacity(),
+                DatabasePlayerWriter.OverflowPolicy.of(writer.overflow())));
+    }
+
+    /**
+     * Builds the MongoDB client settings from the database configuration.
+     * <p>
+     * A non-empty {@code uri} replaces host, port and credentials, so replica sets and {@code mongodb+srv} URIs can be used.
+     * Options given in the URI take precedence over the {@code client} section.
+     *
+     * @param db the database configuration
+     * @return the client settings builder
+     */
+    static MongoClientSettings.Builder clientSettings(Config.database db) {
+        Config.database.client client = db.client();
+        ConnectionString connectionString = client.uri() == null || client.uri().isBlank()
+                ? Database.connectionString(db.host(), db.port(), db.user(), db.password())
+                : new ConnectionString(client.uri().trim());
+
+        MongoClientSettings.Builder settings = MongoClientSettings.builder()
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(client.minPoolSize())
+                        .maxSize(client.maxPoolSize())
+                        .maxConnectionIdleTime(client.maxIdleTime(), TimeUnit.MILLISECONDS))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(client.connectTimeout(), TimeUnit.MILLISECONDS)
+                        .readTimeout(client.socketTimeout(), TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(client.serverSelectionTimeout(), TimeUnit.MILLISECONDS))
+                .compressorList(compressors(client.compressors()));
+
+        if (client.readPreference() != null && !client.readPreference().isBlank()) {
+            try {
+                settings.readPreference(ReadPreference.valueOf(client.readPreference().trim()));
+            } catch (IllegalArgumentException e) {
+                MongoBanAPI.logger.warn("Unknown read preference {}, using primary", client.readPreference());
+            }
+        }
+        return settings.applyConnectionString(connectionString);
+    }
+
+    /**
+     * Parses a comma-separated list of wire compressors in order of preference.
+     * <p>
+     * Only zlib is supported, as it is the one compressor that needs no library beyond the JDK.
+     */
+    static List<MongoCompressor> compressors(String value) {
+        List<MongoCompressor> compressors = Collections.newArrayList();
+        if (value == null || value.isBlank()) return compressors;
+
+        for (String name : value.split(",")) {
+            switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "" -> {
+                }
+                case "zlib" -> compressors.add(MongoCompressor.createZlibCompressor());
+                default -> MongoBanAPI.logger.warn("Unsupported compressor {}, ignoring it", name.trim());
+            }
+        }
+        return compressors;
     }
 }
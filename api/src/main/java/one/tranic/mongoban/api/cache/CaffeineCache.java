@@ -3,6 +3,8 @@ package one.tranic.mongoban.api.cache;
 import one.tranic.t.base.cache.Cache;
 import one.tranic.t.base.cache.CacheService;
 
+import java.time.Duration;
+
 public class CaffeineCache implements Cache {
     private final CaffeineCacheService service;
 
@@ -10,6 +12,10 @@ public class CaffeineCache implements Cache {
         this.service = new CaffeineCacheService();
     }
 
+    public CaffeineCache(long maximumWeight, Duration defaultTtl) {
+        this.service = new CaffeineCacheService(maximumWeight, defaultTtl);
+    }
+
     @Override
     public CacheService getService() {
         return this.service;
@@ -1,32 +1,74 @@
 package one.tranic.mongoban.api.cache;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import one.tranic.t.base.cache.CacheService;
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.reflect.Array;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+/**
+ * A local {@link CacheService} backed by Caffeine.
+ * <p>
+ * The cache is bounded by an approximate memory footprint rather than an entry count,
+ * each entry is weighed by {@link #weigh(String, Object)}.
+ * <p>
+ * Entries expire after the default time-to-live, unless {@link #put(String, Object, long)}
+ * is given a time-to-live of its own.
+ */
 public class CaffeineCacheService implements CacheService {
     private final ExecutorService executor = Executors.newFixedThreadPool(2,
             new ThreadFactoryBuilder().setDaemon(true).build());
 
-    private com.github.benmanes.caffeine.cache.Cache<String, Object> objectCache;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> objectCache;
+    private final Policy.VarExpiration<String, Object> expiration;
 
     public CaffeineCacheService() {
+        this(64L * 1024 * 1024, Duration.ofMinutes(1440));
+    }
+
+    /**
+     * Constructs a new CaffeineCacheService.
+     *
+     * @param maximumWeight the approximate maximum memory footprint of all entries, in bytes
+     * @param defaultTtl    the time-to-live of entries put without a time-to-live of their own
+     */
+    public CaffeineCacheService(long maximumWeight, @NotNull Duration defaultTtl) {
         this.objectCache = Caffeine.newBuilder()
-                .maximumSize(70)
+                .maximumWeight(maximumWeight)
+                .weigher(CaffeineCacheService::weigh)
+                .expireAfter(new DefaultExpiry(defaultTtl))
                 .executor(executor)
-                .expireAfterWrite(Duration.ofMinutes(1440))
+                .recordStats()
                 .build();
+        this.expiration = objectCache.policy().expireVariably().orElseThrow();
+    }
+
+    /**
+     * Estimates the memory footprint of an entry in bytes.
+     * <p>
+     * Strings are weighed by their length, arrays by their number of elements,
+     * any other value is assumed to be a small record.
+     */
+    private static int weigh(String key, Object value) {
+        long weight = 64 + 2L * key.length();
+        if (value instanceof String string) weight += 40 + 2L * string.length();
+        else if (value.getClass().isArray()) weight += 16 + 256L * Array.getLength(value);
+        else weight += 256;
+        return (int) Math.min(weight, Integer.MAX_VALUE);
     }
 
     @Override
     public <T> @NotNull Optional<T> get(@NotNull String key, @NotNull Class<T> type) {
-        return Optional.ofNullable((T) objectCache.getIfPresent(key));
+        Object value = objectCache.getIfPresent(key);
+        return type.isInstance(value) ? Optional.of(type.cast(value)) : Optional.empty();
     }
 
     @Override
@@ -39,15 +81,8 @@ public class CaffeineCacheService implements CacheService {
 
     @Override
     public void put(@NotNull String key, @NotNull Object value, long ttl) {
-        if (get(key, value.getClass()).isPresent())
-            invalidate(key);
-        if (ttl > 0) {
-            objectCache.policy().expireVariably().ifPresent(
-                    policy -> policy.put(key, value, Duration.ofSeconds(ttl))
-            );
-        } else {
-            objectCache.put(key, value);
-        }
+        if (ttl > 0) expiration.put(key, value, Duration.ofSeconds(ttl));
+        else objectCache.put(key, value);
     }
 
     @Override
@@ -60,10 +95,45 @@ public class CaffeineCacheService implements CacheService {
         objectCache.invalidateAll();
     }
 
+    /**
+     * Retrieves a snapshot of the statistics recorded by this cache, such as its hit rate and eviction count.
+     *
+     * @return the current {@link CacheStats}
+     */
+    public @NotNull CacheStats stats() {
+        return objectCache.stats();
+    }
+
+    /**
+     * Retrieves the approximate number of entries in this cache.
+     *
+     * @return the estimated number of entries
+     */
+    public long size() {
+        return objectCache.estimatedSize();
+    }
+
     @Override
     public void close() {
         if (executor.isShutdown()) return;
         invalidateAll();
         executor.shutdown();
     }
+
+    private record DefaultExpiry(Duration ttl) implements Expiry<String, Object> {
+        @Override
+        public long expireAfterCreate(String key, Object value, long currentTime) {
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Object value, long currentTime, long currentDuration) {
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
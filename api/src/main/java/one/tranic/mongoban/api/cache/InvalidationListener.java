@@ -0,0 +1,19 @@
+package one.tranic.mongoban.api.cache;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A listener notified when another server invalidates an entry of a shared cache.
+ * <p>
+ * Only invalidations are announced; filling the cache with a looked-up value is not,
+ * since it does not make any other server's copy stale.
+ */
+@FunctionalInterface
+public interface InvalidationListener {
+    /**
+     * Called when a cache entry has been invalidated by another server.
+     *
+     * @param key the key of the invalidated entry, or {@code null} if all entries were invalidated
+     */
+    void invalidated(@Nullable String key);
+}
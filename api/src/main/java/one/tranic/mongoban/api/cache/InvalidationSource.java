@@ -0,0 +1,15 @@
+package one.tranic.mongoban.api.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A cache that reports invalidations made by other servers sharing it.
+ */
+public interface InvalidationSource {
+    /**
+     * Registers a listener that is notified whenever another server invalidates an entry of the cache.
+     *
+     * @param listener the listener to register
+     */
+    void addInvalidationListener(@NotNull InvalidationListener listener);
+}
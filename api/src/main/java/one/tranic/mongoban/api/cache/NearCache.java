@@ -0,0 +1,28 @@
+package one.tranic.mongoban.api.cache;
+
+import one.tranic.t.base.cache.Cache;
+import one.tranic.t.base.cache.CacheService;
+
+import java.time.Duration;
+
+public class NearCache implements Cache {
+    private final NearCacheService service;
+
+    public NearCache(String host, int port, int db, String user, String passwd, long localMemory, Duration localTtl) {
+        this.service = new NearCacheService(
+                new CaffeineCacheService(localMemory, localTtl),
+                new RedisCacheService(host, port, db, user, passwd),
+                localTtl
+        );
+    }
+
+    @Override
+    public CacheService getService() {
+        return service;
+    }
+
+    @Override
+    public void close() {
+        service.close();
+    }
+}
@@ -0,0 +1,105 @@
+package one.tranic.mongoban.api.cache;
+
+import one.tranic.mongoban.api.MongoBanAPI;
+import one.tranic.t.base.cache.CacheService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A two-tier {@link CacheService} that keeps a small per-server Caffeine cache (L1)
+ * in front of a shared Redis cache (L2).
+ * <p>
+ * Reads are served from L1 when possible and otherwise fall back to L2, promoting hits into L1.
+ * Writes and invalidations go to both tiers, Redis stays the shared source of truth between servers.
+ * <p>
+ * L1 entries are bounded by the size of the {@link CaffeineCacheService} and live for the local time-to-live,
+ * capped by the time-to-live of their L2 copy, so short-lived entries such as absence markers never outlive it.
+ * Invalidations announced by other servers evict the matching L1 entries right away.
+ */
+public class NearCacheService implements CacheService, InvalidationSource {
+    private final CaffeineCacheService local;
+    private final RedisCacheService remote;
+    private final long localTtl;
+
+    /**
+     * Constructs a new NearCacheService.
+     *
+     * @param local    the per-server L1 cache
+     * @param remote   the shared L2 cache
+     * @param localTtl the longest time-to-live of L1 entries
+     */
+    public NearCacheService(@NotNull CaffeineCacheService local, @NotNull RedisCacheService remote, @NotNull Duration localTtl) {
+        this.local = local;
+        this.remote = remote;
+        this.localTtl = Math.max(1, localTtl.toSeconds());
+
+        this.remote.addInvalidationListener(key -> {
+            if (key == null) this.local.invalidateAll();
+            else this.local.invalidate(key);
+        });
+    }
+
+    @Override
+    public <T> @NotNull Optional<T> get(@NotNull String key, @NotNull Class<T> type) {
+        Optional<T> value = local.get(key, type);
+        if (value.isPresent() && type.isInstance(value.get())) return value;
+
+        RedisCacheService.Entry entry = remote.entry(key);
+        if (entry == null) return Optional.empty();
+        value = Optional.ofNullable(MongoBanAPI.jsonParser.parse(entry.value(), type));
+        value.ifPresent(v -> local.put(key, v, localTtl(entry.ttl())));
+        return value;
+    }
+
+    @Override
+    public @NotNull String get(@NotNull String key) {
+        String value = local.get(key);
+        if (!value.isEmpty()) return value;
+
+        RedisCacheService.Entry entry = remote.entry(key);
+        if (entry == null) return "";
+        local.put(key, entry.value(), localTtl(entry.ttl()));
+        return entry.value();
+    }
+
+    @Override
+    public void put(@NotNull String key, @NotNull Object value, @Range(from = 0, to = Long.MAX_VALUE) long ttl) {
+        remote.put(key, value, ttl);
+        local.put(key, value, localTtl(ttl));
+    }
+
+    /**
+     * Caps the time-to-live of an L1 entry to the local time-to-live.
+     *
+     * @param ttl the time-to-live of the L2 entry in seconds, zero or negative if it has none
+     */
+    private long localTtl(long ttl) {
+        return ttl > 0 ? Math.min(ttl, localTtl) : localTtl;
+    }
+
+    @Override
+    public void invalidate(@NotNull String key) {
+        local.invalidate(key);
+        remote.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        local.invalidateAll();
+        remote.invalidateAll();
+    }
+
+    @Override
+    public void addInvalidationListener(@NotNull InvalidationListener listener) {
+        remote.addInvalidationListener(listener);
+    }
+
+    @Override
+    public void close() {
+        local.close();
+        remote.close();
+    }
+}
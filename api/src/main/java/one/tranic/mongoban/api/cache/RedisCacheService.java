@@ -3,16 +3,27 @@ package one.tranic.mongoban.api.cache;
 import one.tranic.mongoban.api.MongoBanAPI;
 import one.tranic.t.base.cache.CacheService;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Range;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
-public class RedisCacheService implements CacheService {
+/**
+ * A {@link CacheService} backed by Redis and shared between servers.
+ * <p>
+ * Every {@link #invalidate} is announced on a pub/sub channel in the same round trip,
+ * so other servers can evict their local copies immediately instead of waiting for them to expire.
+ * Plain {@link #put}s, such as read-through fills and absence markers, are not announced.
+ */
+public class RedisCacheService implements CacheService, InvalidationSource {
     private final JedisPool pool;
+    private final RedisInvalidationBus bus;
 
     public RedisCacheService(String host, int port, int db, String user, String passwd) {
         if (host == null || host.isEmpty())
@@ -33,6 +44,7 @@ public class RedisCacheService implements CacheService {
         uri.append(host).append(":").append(port).append("/").append(db);
         pool = new JedisPool(uri.toString());
         test();
+        bus = new RedisInvalidationBus(pool, "mongoban:invalidate:" + db);
     }
 
     public void test() throws RuntimeException {
@@ -61,6 +73,24 @@ public class RedisCacheService implements CacheService {
         }
     }
 
+    /**
+     * Retrieves a raw value together with its remaining time-to-live, in a single round trip.
+     *
+     * @param key the key to look up
+     * @return the value and its remaining time-to-live in seconds (negative if it does not expire), or null if absent
+     */
+    @Nullable Entry entry(@NotNull String key) {
+        try (Jedis jedis = pool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            Response<String> value = pipeline.get(key);
+            Response<Long> ttl = pipeline.ttl(key);
+            pipeline.sync();
+            return value.get() != null ? new Entry(value.get(), ttl.get()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     @Override
     public void put(@NotNull String key, @NotNull Object value, @Range(from = 0, to = Long.MAX_VALUE) long ttl) {
         try (Jedis jedis = pool.getResource()) {
@@ -72,7 +102,10 @@ public class RedisCacheService implements CacheService {
     @Override
     public void invalidate(@NotNull String key) {
         try (Jedis jedis = pool.getResource()) {
-            jedis.del(key);
+            Pipeline pipeline = jedis.pipelined();
+            pipeline.del(key);
+            bus.deleted(pipeline, key);
+            pipeline.sync();
         }
     }
 
@@ -80,13 +113,23 @@ public class RedisCacheService implements CacheService {
     public void invalidateAll() {
         try (Jedis jedis = pool.getResource()) {
             jedis.flushDB();
+            bus.cleared(jedis);
         }
     }
 
+    @Override
+    public void addInvalidationListener(@NotNull InvalidationListener listener) {
+        bus.addListener(listener);
+    }
+
+    record Entry(@NotNull String value, long ttl) {
+    }
+
     @Override
     public void close() {
         if (pool == null) return;
         if (pool.isClosed()) return;
+        bus.close();
         pool.close();
     }
 }
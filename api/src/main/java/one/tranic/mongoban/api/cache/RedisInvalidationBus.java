@@ -0,0 +1,130 @@
+package one.tranic.mongoban.api.cache;
+
+import one.tranic.mongoban.api.MongoBanAPI;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Broadcasts cache invalidations between servers over a Redis pub/sub channel.
+ * <p>
+ * Every message carries the id of the publishing server, so a server never reacts to its own invalidations.
+ * Messages have the form {@code <node>|<op>|<key>}, where {@code op} is {@code del} or {@code all};
+ * any other operation is ignored.
+ * <p>
+ * The subscription runs on a daemon thread and reconnects automatically when the connection is lost.
+ */
+public class RedisInvalidationBus {
+    private static final String DELETE = "del";
+    private static final String ALL = "all";
+
+    private final JedisPool pool;
+    private final String channel;
+    private final String node = UUID.randomUUID().toString();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread subscriber;
+
+    private volatile JedisPubSub pubSub;
+    private volatile boolean closed = false;
+
+    public RedisInvalidationBus(@NotNull JedisPool pool, @NotNull String channel) {
+        this.pool = pool;
+        this.channel = channel;
+        this.subscriber = Thread.ofPlatform()
+                .daemon()
+                .name("MongoBan-Invalidation")
+                .start(this::subscribe);
+    }
+
+    /**
+     * Registers a listener that is notified of changes published by other servers.
+     *
+     * @param listener the listener to register
+     */
+    public void addListener(@NotNull InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Queues the announcement of an invalidated key on the given pipeline.
+     *
+     * @param pipeline the pipeline carrying the cache write
+     * @param key      the invalidated key
+     */
+    public void deleted(@NotNull Pipeline pipeline, @NotNull String key) {
+        pipeline.publish(channel, message(DELETE, key));
+    }
+
+    /**
+     * Announces that all keys were invalidated.
+     *
+     * @param jedis the connection that flushed the cache
+     */
+    public void cleared(@NotNull Jedis jedis) {
+        jedis.publish(channel, message(ALL, ""));
+    }
+
+    private String message(String op, String key) {
+        return node + "|" + op + "|" + key;
+    }
+
+    private void subscribe() {
+        while (!closed) {
+            try (Jedis jedis = pool.getResource()) {
+                pubSub = new JedisPubSub() {
+                    @Override
+                    public void onMessage(String channel, String message) {
+                        receive(message);
+                    }
+                };
+                jedis.subscribe(pubSub, channel);
+            } catch (Exception e) {
+                if (closed) return;
+                MongoBanAPI.logger.warn("Lost the Redis invalidation subscription, retrying: {}", e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(node)) return;
+
+        @Nullable String key;
+        if (parts[1].equals(ALL)) key = null;
+        else if (parts[1].equals(DELETE)) key = parts[2];
+        else return;
+
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.invalidated(key);
+            } catch (Exception e) {
+                MongoBanAPI.logger.warn("Invalidation listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the subscription.
+     */
+    public void close() {
+        closed = true;
+        JedisPubSub pubSub = this.pubSub;
+        try {
+            if (pubSub != null && pubSub.isSubscribed()) pubSub.unsubscribe();
+        } catch (Exception ignored) {
+        }
+        subscriber.interrupt();
+    }
+}
@@ -12,7 +12,7 @@ import java.util.Optional;
  * clean access methods for each field.
  */
 public record BanArgs(Optional<String> target, Optional<String> reason, Optional<String> duration,
-                      Optional<Boolean> strict) {
+                      Optional<Boolean> strict, Optional<Boolean> force) {
     public static BanArgs parse(String[] args) throws ArgsParseException {
         return Args.parse(args, BanArgs.class);
     }
@@ -6,6 +6,7 @@ import one.tranic.mongoban.api.MongoDataAPI;
 import one.tranic.mongoban.api.command.Command;
 import one.tranic.mongoban.api.command.args.BanArgs;
 import one.tranic.mongoban.api.data.IPBanInfo;
+import one.tranic.mongoban.api.data.IPRange;
 import one.tranic.mongoban.api.data.PlayerBanInfo;
 import one.tranic.mongoban.api.data.PlayerInfo;
 import one.tranic.mongoban.api.message.MessageKey;
@@ -63,6 +64,7 @@ public class BanCommand<C extends CommandSource<?, ?>> extends Command<C> {
         String reason;
         String time;
         boolean strict;
+        boolean force = false;
 
         if (arg instanceof GeyserForm.DoForm args) {
             target = args.player();
@@ -83,8 +85,14 @@ public class BanCommand<C extends CommandSource<?, ?>> extends Command<C> {
             time = TimeParser.parse(args.duration().orElse("forever"));
             reason = args.reason().orElse("<Banned by ServerAdmin>");
             strict = args.strict().orElse(false);
+            force = args.force().orElse(false);
         } else throw new UnsupportedTypeException(arg);
 
+        if (IPRange.isRange(target)) {
+            banRange(source, target, time, reason, force);
+            return;
+        }
+
         try {
             InetAddress inip = InetAddress.getByName(target);
 
@@ -185,4 +193,58 @@ public class BanCommand<C extends CommandSource<?, ?>> extends Command<C> {
             }
         }
     }
+
+    private void banRange(C source, String target, String time, String reason, boolean force) {
+        IPRange range;
+        try {
+            range = IPRange.parse(target);
+        } catch (IllegalArgumentException e) {
+            Component msg = MessageKey.TARGET_NOT_FOUND.format(
+                    new MessageFormat("target", Component.text(target, NamedTextColor.YELLOW))
+            );
+            sendResult(source, msg, false);
+            return;
+        }
+
+        // Check Private IP
+        if (TNetwork.isPrivateIp(range.network())) {
+            Component msg = MessageKey.PRIVATE_IP.format(
+                    new MessageFormat("ip", Component.text(target, NamedTextColor.BLUE))
+            );
+            sendResult(source, msg, false);
+            return;
+        }
+
+        // A short prefix such as /0 would lock out everyone, it has to be asked for explicitly
+        if (range.isTooWide() && !force) {
+            Component msg = MessageKey.RANGE_TOO_WIDE.format(
+                    new MessageFormat("range", Component.text(range.toString(), NamedTextColor.BLUE)),
+                    new MessageFormat("prefix", Component.text(range.address().length == 4 ? IPRange.MIN_PREFIX_V4 : IPRange.MIN_PREFIX_V6, NamedTextColor.BLUE))
+            );
+            sendResult(source, msg, false);
+            return;
+        }
+
+        IPBanInfo result = MongoDataAPI.getDatabase().ban().range().find(range).sync();
+        if (result != null) {
+            Component msg = MessageKey.ALREADY_BANNED.format(
+                    new MessageFormat("target", Component.text(result.ip(), NamedTextColor.BLUE)),
+                    new MessageFormat("operator", Component.text(result.operator().name(), NamedTextColor.BLUE)),
+                    new MessageFormat("duration", Component.text(result.duration(), NamedTextColor.BLUE)),
+                    new MessageFormat("reason", Component.text(result.reason(), NamedTextColor.BLUE))
+            );
+            sendResult(source, msg, false);
+            return;
+        }
+
+        MongoDataAPI.getDatabase().ban().range().add(range, source.getOperator(), time, reason).async().thenAcceptAsync((v) -> {
+            Component msg = MessageKey.BAN_MESSAGE.format(
+                    new MessageFormat("target", Component.text(v.ip(), NamedTextColor.BLUE)),
+                    new MessageFormat("operator", Component.text(source.getOperator().name(), NamedTextColor.BLUE)),
+                    new MessageFormat("duration", Component.text(time, NamedTextColor.BLUE)),
+                    new MessageFormat("reason", Component.text(reason, NamedTextColor.BLUE))
+            );
+            sendResult(source, msg);
+        }, TBase.executor);
+    }
 }
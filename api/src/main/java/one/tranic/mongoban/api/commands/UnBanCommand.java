@@ -5,6 +5,7 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import one.tranic.mongoban.api.MongoDataAPI;
 import one.tranic.mongoban.api.command.Command;
 import one.tranic.mongoban.api.command.args.UnBanArgs;
+import one.tranic.mongoban.api.data.IPRange;
 import one.tranic.mongoban.api.data.PlayerInfo;
 import one.tranic.mongoban.api.message.MessageKey;
 import one.tranic.mongoban.api.form.GeyserForm;
@@ -70,6 +71,28 @@ public class UnBanCommand<C extends CommandSource<?, ?>> extends Command<C> {
             }
         } else throw new UnsupportedTypeException(arg);
 
+        if (IPRange.isRange(target)) {
+            IPRange range;
+            try {
+                range = IPRange.parse(target);
+            } catch (IllegalArgumentException e) {
+                Component msg = MessageKey.TARGET_NOT_FOUND.format(
+                        new MessageFormat("target", Component.text(target, NamedTextColor.YELLOW))
+                );
+                sendResult(source, msg, false);
+                return;
+            }
+
+            MongoDataAPI.getDatabase().ban().range().remove(range).async().thenAcceptAsync(v -> {
+                Component msg = MessageKey.ACTION_MESSGAE.format(
+                        new MessageFormat("target", Component.text(range.toString(), NamedTextColor.BLUE)),
+                        new MessageFormat("action", Component.text("Unbanned", NamedTextColor.GREEN))
+                );
+                sendResult(source, msg);
+            }, TBase.executor);
+            return;
+        }
+
         try {
             InetAddress inip = InetAddress.getByName(target);
 
@@ -2,14 +2,27 @@ package one.tranic.mongoban.api.config;
 
 import java.util.Locale;
 
-public record Config(Locale language, int cache, database database, redis redis, updater updater) {
+public record Config(Locale language, int cache, caching caching, database database, redis redis, login login, writer writer, updater updater) {
 
-    public record database(String host, int port, String database, String user, String password) {
+    public record caching(long ttl, long negativeTtl, long memory, long localTtl, long localMemory) {
+    }
+
+    public record database(String host, int port, String database, String user, String password, client client) {
+
+        public record client(String uri, int minPoolSize, int maxPoolSize, long maxIdleTime, long connectTimeout,
+                             long socketTimeout, long serverSelectionTimeout, String compressors, String readPreference) {
+        }
     }
 
     public record redis(String host, int port, int db, String user, String password) {
     }
 
+    public record login(boolean index, long refresh, boolean batch, long batchWindow, int batchSize) {
+    }
+
+    public record writer(boolean enable, long interval, int batchSize, int capacity, String overflow) {
+    }
+
     public record updater(boolean enable, boolean simpleMode) {
 
     }
@@ -33,19 +33,41 @@ public class dConfig {
 
         int cache = yaml.integer("cache");
 
+        YamlMapping caching = yaml.yamlMapping("caching");
         YamlMapping db = yaml.yamlMapping("database");
+        YamlMapping client = db.yamlMapping("client");
         YamlMapping redis = yaml.yamlMapping("redis");
+        YamlMapping login = yaml.yamlMapping("login");
+        YamlMapping writer = yaml.yamlMapping("player-writer");
         YamlMapping updater = yaml.yamlMapping("updater");
 
         return new Config(
                 language,
                 cache,
+                new Config.caching(
+                        number(caching, "ttl", 300),
+                        number(caching, "negative-ttl", 10),
+                        number(caching, "memory", 64),
+                        number(caching, "local-ttl", 30),
+                        number(caching, "local-memory", 8)
+                ),
                 new Config.database(
                         db.string("host"),
                         db.integer("port"),
                         db.string("dbname"),
                         db.string("user"),
-                        db.string("passwd")
+                        db.string("passwd"),
+                        new Config.database.client(
+                                client == null ? null : client.string("uri"),
+                                (int) number(client, "min-pool-size", 0),
+                                (int) number(client, "max-pool-size", 100),
+                                number(client, "max-idle-time", 0),
+                                number(client, "connect-timeout", 10000),
+                                number(client, "socket-timeout", 0),
+                                number(client, "server-selection-timeout", 30000),
+                                client == null ? null : client.string("compressors"),
+                                client == null ? null : client.string("read-preference")
+                        )
                 ),
                 new Config.redis(
                         redis.string("host"),
@@ -54,6 +76,20 @@ public class dConfig {
                         redis.string("user"),
                         redis.string("passwd")
                 ),
+                new Config.login(
+                        bool(login, "index", false),
+                        number(login, "refresh", 60),
+                        bool(login, "batch", false),
+                        number(login, "batch-window", 2),
+                        (int) number(login, "batch-size", 200)
+                ),
+                new Config.writer(
+                        bool(writer, "enable", false),
+                        number(writer, "interval", 1000),
+                        (int) number(writer, "batch-size", 500),
+                        (int) number(writer, "capacity", 10000),
+                        writer == null ? null : writer.string("overflow")
+                ),
                 new Config.updater(
                         updater.bool("enable"),
                         updater.bool("simple-mode")
@@ -65,6 +101,15 @@ public class dConfig {
         YamlMapping yaml = Yaml.createYamlMappingBuilder()
                 .add("language", "en-US")
                 .add("cache", 0)
+                .add("caching",
+                        Yaml.createYamlMappingBuilder()
+                                .add("ttl", 300)
+                                .add("negative-ttl", 10)
+                                .add("memory", 64)
+                                .add("local-ttl", 30)
+                                .add("local-memory", 8)
+                                .build()
+                )
                 .add("database",
                         Yaml.createYamlMappingBuilder()
                                 .add("host", "localhost")
@@ -72,6 +117,19 @@ public class dConfig {
                                 .add("dbname", "MongoBan")
                                 .add("user", "")
                                 .add("passwd", "")
+                                .add("client",
+                                        Yaml.createYamlMappingBuilder()
+                                                .add("uri", "")
+                                                .add("min-pool-size", 0)
+                                                .add("max-pool-size", 100)
+                                                .add("max-idle-time", 0)
+                                                .add("connect-timeout", 10000)
+                                                .add("socket-timeout", 0)
+                                                .add("server-selection-timeout", 30000)
+                                                .add("compressors", "")
+                                                .add("read-preference", "primary")
+                                                .build()
+                                )
                                 .build()
                 ).add("redis",
                         Yaml.createYamlMappingBuilder()
@@ -81,6 +139,25 @@ public class dConfig {
                                 .add("passwd", "")
                                 .add("db", 0)
                                 .build()
+                ).add("login",
+                        Yaml.createYamlMappingBuilder()
+                                .add("index", false)
+                                .add("refresh", 60)
+                                .add("batch", false)
+                                .add("batch-window", 2)
+                                .add("batch-size", 200)
+                                .build("index keeps all bans in memory to skip the database on clean logins. "
+                                        + "Range bans are always kept in memory. Bans written by other servers or directly "
+                                        + "in MongoDB are only seen after the next reload, every refresh seconds (0 disables it), "
+                                        + "unless those servers share a redis cache with this one; until then a banned player may join.")
+                ).add("player-writer",
+                        Yaml.createYamlMappingBuilder()
+                                .add("enable", false)
+                                .add("interval", 1000)
+                                .add("batch-size", 500)
+                                .add("capacity", 10000)
+                                .add("overflow", "drop-oldest")
+                                .build()
                 ).add("updater",
                         Yaml.createYamlMappingBuilder()
                                 .add("enable", true)
@@ -103,6 +180,16 @@ public class dConfig {
         }
     }
 
+    private static boolean bool(YamlMapping mapping, String key, boolean def) {
+        if (mapping == null || mapping.string(key) == null) return def;
+        return mapping.bool(key);
+    }
+
+    private static long number(YamlMapping mapping, String key, long def) {
+        if (mapping == null || mapping.string(key) == null) return def;
+        return mapping.longNumber(key);
+    }
+
     private YamlMapping yaml() throws IOException {
         return Yaml.createYamlInput(
                 configFile
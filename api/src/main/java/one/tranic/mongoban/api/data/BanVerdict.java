@@ -0,0 +1,37 @@
+package one.tranic.mongoban.api.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents the outcome of a combined IP and player ban check.
+ * <p>
+ * The {@link Type} tells which rule matched; only the ban information belonging to that rule is set.
+ * <p>
+ * IP bans take precedence over player bans, matching the order in which they are enforced at login.
+ *
+ * @param type   The rule that matched, or {@link Type#NONE} if the connection is not banned.
+ * @param ip     The matching IP ban, or {@code null} if the verdict is not {@link Type#IP}.
+ * @param player The matching player ban, or {@code null} if the verdict is not {@link Type#PLAYER}.
+ */
+public record BanVerdict(@NotNull Type type, @Nullable IPBanInfo ip, @Nullable PlayerBanInfo player) {
+    public static final BanVerdict NONE = new BanVerdict(Type.NONE, null, null);
+
+    public static BanVerdict ofIP(@NotNull IPBanInfo info) {
+        return new BanVerdict(Type.IP, info, null);
+    }
+
+    public static BanVerdict ofPlayer(@NotNull PlayerBanInfo info) {
+        return new BanVerdict(Type.PLAYER, null, info);
+    }
+
+    public boolean banned() {
+        return type != Type.NONE;
+    }
+
+    public enum Type {
+        NONE,
+        IP,
+        PLAYER
+    }
+}
@@ -0,0 +1,283 @@
+package one.tranic.mongoban.api.data;
+
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonString;
+import org.bson.types.Binary;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+/**
+ * An IPv4 or IPv6 address in its canonical binary form, 4 or 16 bytes in network order.
+ * <p>
+ * Addresses are stored in MongoDB as {@code BinData} and compared byte by byte,
+ * so different spellings of the same address, such as {@code ::1} and {@code 0:0:0:0:0:0:0:1}, are equal.
+ * <p>
+ * {@link #toString()} yields one canonical text form, which is what the public ban and player records expose.
+ */
+public final class IPAddress {
+    private final byte[] bytes;
+    private final int hash;
+
+    private IPAddress(byte[] bytes) {
+        if (bytes.length != 4 && bytes.length != 16)
+            throw new IllegalArgumentException("Address must be 4 or 16 bytes long");
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Creates an address from its raw bytes.
+     *
+     * @param bytes the address, 4 bytes for IPv4 or 16 bytes for IPv6
+     * @return the address
+     */
+    public static IPAddress of(@NotNull byte[] bytes) {
+        return new IPAddress(bytes.clone());
+    }
+
+    /**
+     * Creates an address from an {@link InetAddress}.
+     *
+     * @param address the address
+     * @return the address
+     */
+    public static IPAddress of(@NotNull InetAddress address) {
+        return new IPAddress(address.getAddress());
+    }
+
+    /**
+     * Parses an address literal. Host names are never resolved.
+     *
+     * @param text the IPv4 or IPv6 address literal
+     * @return the address, or null if the text is not an address literal
+     */
+    public static @Nullable IPAddress parse(@Nullable String text) {
+        if (text == null || text.isEmpty()) return null;
+        byte[] bytes = literal(text);
+        return bytes != null ? new IPAddress(bytes) : null;
+    }
+
+    /**
+     * Parses the bytes of an address literal by hand, so that no text ever reaches the name resolver.
+     * <p>
+     * IPv4 literals are four dotted decimal octets. IPv6 literals are up to eight groups of hexadecimal digits
+     * with at most one {@code ::}, optionally ending in an IPv4 literal, enclosed in brackets or followed by a zone id.
+     * IPv4-mapped IPv6 addresses yield the IPv4 address, as {@link InetAddress} does.
+     *
+     * @param text the address literal
+     * @return the address, 4 bytes for IPv4 or 16 bytes for IPv6, or null if the text is not an address literal
+     */
+    static @Nullable byte[] literal(@NotNull String text) {
+        String value = text;
+        if (value.length() > 2 && value.charAt(0) == '[' && value.charAt(value.length() - 1) == ']')
+            value = value.substring(1, value.length() - 1);
+
+        if (value.indexOf(':') < 0) {
+            byte[] address = new byte[4];
+            return ipv4(value, address, 0) ? address : null;
+        }
+
+        int zone = value.indexOf('%');
+        if (zone >= 0) {
+            if (zone == value.length() - 1) return null;
+            value = value.substring(0, zone);
+        }
+        byte[] address = ipv6(value);
+        if (address == null || !isMapped(address)) return address;
+        return Arrays.copyOfRange(address, 12, 16);
+    }
+
+    private static boolean ipv4(String text, byte[] address, int offset) {
+        int index = offset;
+        int octet = 0;
+        int digits = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : '.';
+            if (c == '.') {
+                if (digits == 0 || index == offset + 4) return false;
+                address[index++] = (byte) octet;
+                octet = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                octet = octet * 10 + (c - '0');
+                if (octet > 255) return false;
+                digits++;
+            } else return false;
+        }
+        return index == offset + 4;
+    }
+
+    private static @Nullable byte[] ipv6(String text) {
+        byte[] address = new byte[16];
+        int length = text.length();
+        int index = 0;
+        int gap = -1;
+        int i = 0;
+
+        if (text.startsWith("::")) {
+            gap = 0;
+            i = 2;
+        } else if (text.startsWith(":")) return null;
+
+        while (i < length) {
+            if (index == 16) return null;
+
+            int start = i;
+            int group = 0;
+            int digit;
+            while (i < length && i - start < 4 && (digit = hex(text.charAt(i))) >= 0) {
+                group = group << 4 | digit;
+                i++;
+            }
+
+            if (i < length && text.charAt(i) == '.') {
+                // An IPv4 literal in place of the last two groups.
+                if (index > 12 || !ipv4(text.substring(start), address, index)) return null;
+                index += 4;
+                break;
+            }
+            if (i == start) return null;
+            address[index++] = (byte) (group >> 8);
+            address[index++] = (byte) group;
+
+            if (i == length) break;
+            if (text.charAt(i++) != ':' || i == length) return null;
+            if (text.charAt(i) == ':') {
+                if (gap >= 0) return null;
+                gap = index;
+                i++;
+            }
+        }
+
+        if (gap < 0) return index == 16 ? address : null;
+        if (index == 16) return null;
+        int tail = index - gap;
+        System.arraycopy(address, gap, address, 16 - tail, tail);
+        Arrays.fill(address, gap, 16 - tail, (byte) 0);
+        return address;
+    }
+
+    private static int hex(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private static boolean isMapped(byte[] address) {
+        for (int i = 0; i < 10; i++) if (address[i] != 0) return false;
+        return address[10] == (byte) 0xFF && address[11] == (byte) 0xFF;
+    }
+
+    /**
+     * Reads an address stored in a document, in its binary form or as a legacy string.
+     * <p>
+     * Values read lazily from a {@link org.bson.RawBsonDocument} are accepted as well.
+     *
+     * @param value the stored value
+     * @return the address, or null if the value is not an address
+     */
+    public static @Nullable IPAddress fromBson(@Nullable Object value) {
+        if (value instanceof Binary binary) {
+            byte[] data = binary.getData();
+            return data.length == 4 || data.length == 16 ? new IPAddress(data.clone()) : null;
+        }
+        if (value instanceof BsonBinary binary) {
+            byte[] data = binary.getData();
+            return data.length == 4 || data.length == 16 ? new IPAddress(data.clone()) : null;
+        }
+        if (value instanceof String text) return parse(text);
+        if (value instanceof BsonString text) return parse(text.getValue());
+        return null;
+    }
+
+    /**
+     * Converts an address literal into the value stored in documents and used in queries.
+     * <p>
+     * Text that is not an address literal is passed through unchanged.
+     *
+     * @param text the address literal
+     * @return the binary form of the address, or the text itself if it is not an address
+     */
+    public static @Nullable Object toBson(@Nullable String text) {
+        IPAddress address = parse(text);
+        return address != null ? address.toBinary() : text;
+    }
+
+    /**
+     * Brings an address literal into its canonical text form.
+     *
+     * @param text the address literal
+     * @return the canonical form, or the text itself if it is not an address
+     */
+    public static @Nullable String canonical(@Nullable String text) {
+        IPAddress address = parse(text);
+        return address != null ? address.toString() : text;
+    }
+
+    /**
+     * Reads an address stored in a document and returns its canonical text form.
+     *
+     * @param value the stored value
+     * @return the canonical form, or null if the value is not an address
+     */
+    public static @Nullable String read(@Nullable Object value) {
+        IPAddress address = fromBson(value);
+        return address != null ? address.toString() : null;
+    }
+
+    /**
+     * Retrieves a copy of the raw bytes of the address.
+     *
+     * @return the address, 4 bytes for IPv4 or 16 bytes for IPv6
+     */
+    public byte[] bytes() {
+        return bytes.clone();
+    }
+
+    public boolean isIPv4() {
+        return bytes.length == 4;
+    }
+
+    /**
+     * Converts the address into the binary value stored in documents.
+     *
+     * @return the address as BSON binary data
+     */
+    public Binary toBinary() {
+        return new Binary(BsonBinarySubType.BINARY, bytes.clone());
+    }
+
+    public InetAddress toInetAddress() {
+        try {
+            return InetAddress.getByAddress(bytes);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof IPAddress other && hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Formats the address in its canonical text form.
+     *
+     * @return the canonical text form of the address
+     */
+    @Override
+    public String toString() {
+        return toInetAddress().getHostAddress();
+    }
+}
@@ -1,5 +1,6 @@
 package one.tranic.mongoban.api.data;
 
+import one.tranic.mongoban.api.parse.time.ExpiryParser;
 import one.tranic.t.base.command.Operator;
 import one.tranic.t.base.parse.time.TimeParser;
 
@@ -11,20 +12,23 @@ import one.tranic.t.base.parse.time.TimeParser;
  * <p>
  * The class provides functionality to determine if the ban has already expired.
  * <p>
- * An expiration is determined based on the parsed duration of the ban and the current
- * time when the check is performed.
+ * The expiry is computed once from the duration, so checking it does not parse the duration again.
  * <p>
  * Instances of this record are immutable, ensuring reliable and safe handling of IP ban data.
  *
- * @param ip       The IP address that the ban is applied to.
- * @param operator The operator responsible for issuing the ban.
- * @param duration The duration of the ban, specified as a string.
- * @param reason   The reason for imposing the ban.
+ * @param ip        The IP address that the ban is applied to.
+ * @param operator  The operator responsible for issuing the ban.
+ * @param duration  The duration of the ban, specified as a string.
+ * @param reason    The reason for imposing the ban.
+ * @param expiresAt The expiry of the ban in epoch milliseconds, precomputed from the duration by {@link ExpiryParser}.
  */
-public record IPBanInfo(String ip, Operator operator, String duration, String reason) {
+public record IPBanInfo(String ip, Operator operator, String duration, String reason, long expiresAt) {
+    public IPBanInfo(String ip, Operator operator, String duration, String reason) {
+        this(ip, operator, duration, reason, ExpiryParser.parse(duration));
+    }
+
     public boolean expired() {
-        if (duration == null || duration.isBlank()) return true;
-        if (duration.equals("forever")) return false;
+        if (expiresAt != ExpiryParser.UNKNOWN) return System.currentTimeMillis() >= expiresAt;
         try {
             return TimeParser.isTimeInPast(TimeParser.parseStringTime(duration));
         } catch (Exception e) {
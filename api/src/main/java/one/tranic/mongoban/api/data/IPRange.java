@@ -0,0 +1,124 @@
+package one.tranic.mongoban.api.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+/**
+ * Represents an IPv4 or IPv6 address block in CIDR notation, such as {@code 203.0.113.0/24} or {@code 2001:db8::/64}.
+ * <p>
+ * The address is always stored with every bit beyond the prefix cleared,
+ * so {@code 203.0.113.7/24} and {@code 203.0.113.0/24} describe the same range.
+ *
+ * @param address The network address, 4 bytes for IPv4 or 16 bytes for IPv6.
+ * @param prefix  The number of leading bits shared by every address in the range.
+ */
+public record IPRange(@NotNull byte[] address, int prefix) {
+    /**
+     * The shortest IPv4 prefix a range can be banned with unless forced, see {@link #isTooWide()}.
+     */
+    public static final int MIN_PREFIX_V4 = 8;
+    /**
+     * The shortest IPv6 prefix a range can be banned with unless forced, see {@link #isTooWide()}.
+     */
+    public static final int MIN_PREFIX_V6 = 32;
+
+    public IPRange {
+        if (address.length != 4 && address.length != 16)
+            throw new IllegalArgumentException("Address must be 4 or 16 bytes long");
+        if (prefix < 0 || prefix > address.length * 8)
+            throw new IllegalArgumentException("Prefix length out of range: " + prefix);
+        address = mask(address, prefix);
+    }
+
+    /**
+     * Parses a range from CIDR notation.
+     * <p>
+     * Only address literals are accepted, host names are never resolved.
+     *
+     * @param cidr the range in CIDR notation, such as {@code 198.51.100.0/22}
+     * @return the parsed range
+     * @throws IllegalArgumentException if the text is not a valid IPv4 or IPv6 range
+     */
+    public static IPRange parse(@NotNull String cidr) {
+        int slash = cidr.indexOf('/');
+        if (slash < 1 || slash == cidr.length() - 1) throw new IllegalArgumentException("Not a CIDR range: " + cidr);
+
+        String host = cidr.substring(0, slash).trim();
+        byte[] address = IPAddress.literal(host);
+        if (address == null) throw new IllegalArgumentException("Not an IP address: " + host);
+
+        int prefix;
+        try {
+            prefix = Integer.parseInt(cidr.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a prefix length: " + cidr.substring(slash + 1), e);
+        }
+        return new IPRange(address, prefix);
+    }
+
+    /**
+     * Checks whether a text is written in CIDR notation, without validating it.
+     *
+     * @param text the text to check
+     * @return true if the text looks like a CIDR range, false otherwise
+     */
+    public static boolean isRange(@NotNull String text) {
+        return text.indexOf('/') > 0;
+    }
+
+    /**
+     * Checks whether the range is wider than a ban should normally cover,
+     * such as {@code 0.0.0.0/0}, {@code ::/0} or any IPv4 range shorter than /8 and IPv6 range shorter than /32.
+     *
+     * @return true if the prefix is shorter than {@link #MIN_PREFIX_V4} or {@link #MIN_PREFIX_V6}, false otherwise
+     */
+    public boolean isTooWide() {
+        return prefix < (address.length == 4 ? MIN_PREFIX_V4 : MIN_PREFIX_V6);
+    }
+
+    private static byte[] mask(byte[] address, int prefix) {
+        byte[] masked = address.clone();
+        for (int i = 0; i < masked.length; i++) {
+            int bits = prefix - i * 8;
+            if (bits >= 8) continue;
+            masked[i] = bits <= 0 ? 0 : (byte) (masked[i] & (0xFF << (8 - bits)));
+        }
+        return masked;
+    }
+
+    /**
+     * Retrieves the network address of the range.
+     *
+     * @return the network address as an {@link InetAddress}
+     */
+    public InetAddress network() {
+        try {
+            return InetAddress.getByAddress(address);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IPRange other && prefix == other.prefix && Arrays.equals(address, other.address);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(address) + prefix;
+    }
+
+    /**
+     * Formats the range in canonical CIDR notation, which is also how it is stored in the database.
+     *
+     * @return the range in CIDR notation
+     */
+    @Override
+    public @NotNull String toString() {
+        return network().getHostAddress() + "/" + prefix;
+    }
+}
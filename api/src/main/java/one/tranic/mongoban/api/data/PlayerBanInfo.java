@@ -1,5 +1,6 @@
 package one.tranic.mongoban.api.data;
 
+import one.tranic.mongoban.api.parse.time.ExpiryParser;
 import one.tranic.t.base.command.Operator;
 import one.tranic.t.base.parse.time.TimeParser;
 import org.jetbrains.annotations.NotNull;
@@ -14,18 +15,23 @@ import java.util.UUID;
  * <p>
  * Instances of this record are immutable, ensuring consistent handling of ban-related data.
  *
- * @param uuid     The unique identifier of the banned player.
- * @param name     The player name
- * @param operator The operator responsible for issuing the ban.
- * @param duration The duration of the ban, specified as a string.
- * @param reason   The reason for the ban.
+ * @param uuid      The unique identifier of the banned player.
+ * @param name      The player name
+ * @param operator  The operator responsible for issuing the ban.
+ * @param duration  The duration of the ban, specified as a string.
+ * @param reason    The reason for the ban.
+ * @param expiresAt The expiry of the ban in epoch milliseconds, precomputed from the duration by {@link ExpiryParser}.
  */
 public record PlayerBanInfo(@Nullable UUID uuid, @NotNull String name, @NotNull Operator operator,
                             @NotNull String duration,
-                            @NotNull String reason) {
+                            @NotNull String reason,
+                            long expiresAt) {
+    public PlayerBanInfo(@Nullable UUID uuid, @NotNull String name, @NotNull Operator operator, @NotNull String duration, @NotNull String reason) {
+        this(uuid, name, operator, duration, reason, ExpiryParser.parse(duration));
+    }
+
     public boolean expired() {
-        if (duration == null || duration.isBlank()) return true;
-        if (duration.equals("forever")) return false;
+        if (expiresAt != ExpiryParser.UNKNOWN) return System.currentTimeMillis() >= expiresAt;
         try {
             return TimeParser.isTimeInPast(TimeParser.parseStringTime(duration));
         } catch (Exception e) {
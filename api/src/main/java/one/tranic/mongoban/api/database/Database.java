@@ -1,19 +1,31 @@
 package one.tranic.mongoban.api.database;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import one.tranic.mongoban.api.MongoBanAPI;
+import one.tranic.mongoban.api.database.codec.Codecs;
 import one.tranic.t.base.cache.Cache;
 import one.tranic.t.utils.Collections;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The Database class provides a wrapper for handling MongoDB database connections
@@ -24,15 +36,61 @@ import java.util.List;
 public class Database {
     private final String database;
     private final DatabaseService service;
-    private final Cache cache;
+    private final DatabaseCache cache;
+    private final DatabaseIndexes indexes;
+    private final SingleFlight lookups = new SingleFlight();
 
-    private final String connectionString;
+    private final MongoClientSettings settings;
     private MongoClient client;
+    private com.mongodb.reactivestreams.client.MongoClient asyncClient;
 
     public Database(String host, int port, String database, String user, String password, Cache cache) {
+        this(host, port, database, user, password, cache, 300, 10);
+    }
+
+    public Database(String host, int port, String database, String user, String password, Cache cache, long cacheTtl, long negativeCacheTtl) {
+        this(MongoClientSettings.builder().applyConnectionString(connectionString(host, port, user, password)),
+                database, cache, cacheTtl, negativeCacheTtl);
+    }
+
+    /**
+     * Creates a database connected with custom client settings, such as connection pool sizing,
+     * timeouts, wire compression or read preference.
+     * <p>
+     * The codec registry is always replaced by {@link Codecs#REGISTRY}.
+     * UUIDs are stored in the standard binary representation unless the settings specify another one.
+     *
+     * @param settings         the client settings, including the connection string
+     * @param database         the name of the database
+     * @param cache            the cache backing the lookups
+     * @param cacheTtl         the time-to-live of cached lookups, in seconds
+     * @param negativeCacheTtl the time-to-live of cached misses, in seconds
+     */
+    public Database(@NotNull MongoClientSettings.Builder settings, String database, Cache cache, long cacheTtl, long negativeCacheTtl) {
         this.database = database;
-        this.cache = cache;
+        this.cache = new DatabaseCache(cache, cacheTtl, negativeCacheTtl);
 
+        MongoClientSettings built = settings.codecRegistry(Codecs.REGISTRY).build();
+        this.settings = built.getUuidRepresentation() == UuidRepresentation.UNSPECIFIED
+                ? MongoClientSettings.builder(built).uuidRepresentation(UuidRepresentation.STANDARD).build()
+                : built;
+
+        connect();
+
+        this.service = new DatabaseService(this);
+        this.indexes = new DatabaseIndexes(this);
+    }
+
+    /**
+     * Builds the connection string of a single MongoDB server.
+     *
+     * @param host     the host of the server
+     * @param port     the port of the server
+     * @param user     the user name, or null or empty to connect without authentication
+     * @param password the password of the user, may be null or empty
+     * @return the connection string
+     */
+    public static ConnectionString connectionString(String host, int port, @Nullable String user, @Nullable String password) {
         StringBuilder connectionString = new StringBuilder().append("mongodb://");
         if (user == null || user.isEmpty()) connectionString.append(host).append(":").append(port);
         else if (password == null || password.isEmpty())
@@ -40,26 +98,25 @@ public class Database {
         else
             connectionString.append(user).append(":").append(password).append("@").append(host).append(":").append(port);
 
-        this.connectionString = connectionString.toString();
-
-        connect();
-
-        this.service = new DatabaseService(this);
+        return new ConnectionString(connectionString.toString());
     }
 
     /**
-     * Establishes a connection to the MongoDB database using the configured connection string.
+     * Establishes a connection to the MongoDB database using the configured client settings.
      * <p>
      * If an existing client connection exists, it will be closed and reset before establishing a new connection.
      * <p>
+     * A second client of the reactive-streams driver is opened for the non-blocking login-time reads,
+     * {@link #queryManyRawAsync(String, Bson, Bson)} and the {@code queryOneAsync} overloads;
+     * every other operation goes through the blocking client.
+     * Both clients use {@link Codecs#REGISTRY}, so collections can be read and written as data records.
+     * <p>
      * In case of a failure, the connection will be cleaned up by calling the {@link #disconnect()} method.
      */
     public void connect() {
-        if (client != null) {
-            client.close();
-            client = null;
-        }
-        client = MongoClients.create(connectionString);
+        disconnect();
+        client = MongoClients.create(settings);
+        asyncClient = com.mongodb.reactivestreams.client.MongoClients.create(settings);
         try {
             getDB();
             MongoBanAPI.logger.info("Successfully connected to MongoDB");
@@ -80,6 +137,19 @@ public class Database {
         return getDB().getCollection(collectionName);
     }
 
+    /**
+     * Retrieves a MongoDB collection by its name, decoding its documents into the given type.
+     *
+     * @param collectionName the name of the MongoDB collection to retrieve
+     * @param type           the record type the documents are decoded into, which must have a codec in {@link Codecs#REGISTRY}
+     * @param <T>            the type of the documents
+     * @return the MongoCollection object representing the specified collection
+     * @throws IllegalArgumentException if the collection name is null or invalid
+     */
+    public <T> MongoCollection<T> getCollection(String collectionName, Class<T> type) throws IllegalArgumentException {
+        return getDB().getCollection(collectionName, type);
+    }
+
     /**
      * Retrieves the MongoDatabase instance associated with the current connection.
      *
@@ -115,6 +185,91 @@ public class Database {
         }
     }
 
+    /**
+     * Applies an aggregation pipeline update to a single document in the specified MongoDB collection.
+     * <p>
+     * If no matching document is found, it will insert a new document (upsert behavior),
+     * seeded with the equality fields of the filter.
+     * <p>
+     * The whole update is evaluated server-side in one statement, so no prior read is needed.
+     *
+     * @param collectionName the name of the MongoDB collection to update
+     * @param filter         the filter criteria to identify the document to update
+     * @param pipeline       the aggregation pipeline stages to apply to the matched document
+     * @return true if the operation was successful, false if an exception occurred
+     */
+    public boolean upsert(String collectionName, Bson filter, List<? extends Bson> pipeline) {
+        try {
+            MongoCollection<Document> collection = getCollection(collectionName);
+
+            collection.updateOne(filter, pipeline, new UpdateOptions().upsert(true));
+            return true;
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Executes a batch of write operations against the specified MongoDB collection in a single request.
+     * <p>
+     * The batch is unordered, so the server may apply the operations in any order
+     * and a failing operation does not prevent the remaining ones.
+     *
+     * @param collectionName the name of the MongoDB collection to write to
+     * @param models         the write operations to execute
+     * @return true if the operation was successful, false if an exception occurred
+     */
+    public boolean bulkWrite(String collectionName, List<? extends WriteModel<? extends Document>> models) {
+        return bulkWrite(collectionName, models, false);
+    }
+
+    /**
+     * Executes a batch of write operations against the specified MongoDB collection in a single request.
+     * <p>
+     * An ordered batch applies the operations in sequence and stops at the first failing one;
+     * an unordered batch lets the server apply them in any order and carries on past failures.
+     *
+     * @param collectionName the name of the MongoDB collection to write to
+     * @param models         the write operations to execute
+     * @param ordered        whether the operations must be applied in order
+     * @return true if the operation was successful, false if an exception occurred
+     */
+    public boolean bulkWrite(String collectionName, List<? extends WriteModel<? extends Document>> models, boolean ordered) {
+        if (models.isEmpty()) return true;
+        try {
+            MongoCollection<Document> collection = getCollection(collectionName);
+
+            collection.bulkWrite(models, new BulkWriteOptions().ordered(ordered));
+            return true;
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates an index on the specified MongoDB collection.
+     * <p>
+     * Creating an index that already exists with the same keys and options does nothing.
+     *
+     * @param collectionName the name of the MongoDB collection to index
+     * @param keys           the keys of the index
+     * @param options        the options of the index
+     * @return true if the operation was successful, false if an exception occurred
+     */
+    public boolean createIndex(String collectionName, Bson keys, IndexOptions options) {
+        try {
+            MongoCollection<Document> collection = getCollection(collectionName);
+
+            collection.createIndex(keys, options);
+            return true;
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Updates a single document in the specified MongoDB collection based on the provided filter.
      *
@@ -272,6 +427,196 @@ public class Database {
         return resultList;
     }
 
+    /**
+     * Queries a MongoDB collection and decodes the first document that matches the query into a record.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria used to filter the results
+     * @param type           the record type the document is decoded into
+     * @param <T>            the type of the result
+     * @return the first matching document, or null if no matches are found or an error occurs
+     */
+    public <T> T queryOne(String collectionName, Bson query, Class<T> type) {
+        return queryOne(collectionName, query, null, type);
+    }
+
+    /**
+     * Queries a MongoDB collection and decodes the projected fields of the first document that matches the query into a record.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria used to filter the results
+     * @param projection     the fields to return, or null to return the whole document
+     * @param type           the record type the document is decoded into
+     * @param <T>            the type of the result
+     * @return the first matching document, or null if no matches are found or an error occurs
+     */
+    public <T> T queryOne(String collectionName, Bson query, @Nullable Bson projection, Class<T> type) {
+        try {
+            return getCollection(collectionName, type).find(query).projection(projection).first();
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Queries a MongoDB collection and decodes every document that matches the query into a record.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria to filter the documents
+     * @param type           the record type the documents are decoded into
+     * @param <T>            the type of the results
+     * @return the matching documents;
+     * an empty list is returned if no documents match or in case of an exception
+     */
+    public <T> List<T> queryMany(String collectionName, Bson query, Class<T> type) {
+        return queryMany(collectionName, query, null, type);
+    }
+
+    /**
+     * Queries a MongoDB collection and decodes the projected fields of every document that matches the query into a record.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria to filter the documents
+     * @param projection     the fields to return, or null to return whole documents
+     * @param type           the record type the documents are decoded into
+     * @param <T>            the type of the results
+     * @return the matching documents;
+     * an empty list is returned if no documents match or in case of an exception
+     */
+    public <T> List<T> queryMany(String collectionName, Bson query, @Nullable Bson projection, Class<T> type) {
+        List<T> resultList = Collections.newArrayList();
+        try {
+            getCollection(collectionName, type).find(query).projection(projection).into(resultList);
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+        }
+        return resultList;
+    }
+
+    /**
+     * Queries a MongoDB collection for the projected fields of every matching document, without decoding them.
+     * <p>
+     * The documents are kept as the raw bytes received from the server and each field is only decoded when read,
+     * so callers that inspect a few fields, or none when nothing matches, allocate little beyond the network buffer.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria to filter the documents
+     * @param projection     the fields to return
+     * @return the matching documents;
+     * an empty list is returned if no documents match or in case of an exception
+     */
+    public List<RawBsonDocument> queryManyRaw(String collectionName, Bson query, Bson projection) {
+        List<RawBsonDocument> resultList = Collections.newArrayList();
+        try {
+            getCollection(collectionName, RawBsonDocument.class).find(query).projection(projection).into(resultList);
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+        }
+        return resultList;
+    }
+
+    /**
+     * Queries a MongoDB collection for the projected fields of every matching document without blocking,
+     * like {@link #queryManyRaw(String, Bson, Bson)}.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria to filter the documents
+     * @param projection     the fields to return
+     * @return a {@link CompletableFuture} completing with the matching documents;
+     * an empty list is returned if no documents match or in case of an exception
+     */
+    public CompletableFuture<List<RawBsonDocument>> queryManyRawAsync(String collectionName, Bson query, Bson projection) {
+        try {
+            return Subscribers.collect(asyncClient.getDatabase(database).getCollection(collectionName, RawBsonDocument.class)
+                            .find(query).projection(projection))
+                    .exceptionally(e -> {
+                        MongoBanAPI.logger.error(e.getMessage());
+                        return Collections.newArrayList();
+                    });
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+            return CompletableFuture.completedFuture(Collections.newArrayList());
+        }
+    }
+
+    /**
+     * Retrieves the codec registry of the connected client, with its UUID representation applied.
+     *
+     * @return the codec registry used to decode documents
+     */
+    public CodecRegistry codecRegistry() {
+        return getDB().getCodecRegistry();
+    }
+
+    /**
+     * Inserts a record into the specified MongoDB collection, encoded by its codec.
+     *
+     * @param collectionName the name of the MongoDB collection
+     * @param value          the record to insert
+     * @param type           the type of the record
+     * @param <T>            the type of the record
+     * @return true if the operation was successful, false if an exception occurred
+     */
+    public <T> boolean insert(String collectionName, T value, Class<T> type) {
+        try {
+            getCollection(collectionName, type).insertOne(value);
+            return true;
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Queries a MongoDB collection for the first document matching the query without blocking.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria used to filter the results
+     * @return a {@link CompletableFuture} completing with the first matching document, or null if no matches are found or an error occurs
+     */
+    public CompletableFuture<Document> queryOneAsync(String collectionName, Bson query) {
+        return queryOneAsync(collectionName, query, Document.class);
+    }
+
+    /**
+     * Queries a MongoDB collection for the first document matching the query without blocking,
+     * decoding it into a record.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria used to filter the results
+     * @param type           the record type the document is decoded into
+     * @param <T>            the type of the result
+     * @return a {@link CompletableFuture} completing with the first matching document, or null if no matches are found or an error occurs
+     */
+    public <T> CompletableFuture<T> queryOneAsync(String collectionName, Bson query, Class<T> type) {
+        return queryOneAsync(collectionName, query, null, type);
+    }
+
+    /**
+     * Queries a MongoDB collection for the projected fields of the first document matching the query without blocking,
+     * decoding them into a record.
+     *
+     * @param collectionName the name of the MongoDB collection to query
+     * @param query          the query criteria used to filter the results
+     * @param projection     the fields to return, or null to return the whole document
+     * @param type           the record type the document is decoded into
+     * @param <T>            the type of the result
+     * @return a {@link CompletableFuture} completing with the first matching document, or null if no matches are found or an error occurs
+     */
+    public <T> CompletableFuture<T> queryOneAsync(String collectionName, Bson query, @Nullable Bson projection, Class<T> type) {
+        try {
+            return Subscribers.first(asyncClient.getDatabase(database).getCollection(collectionName, type).find(query).projection(projection).first())
+                    .exceptionally(e -> {
+                        MongoBanAPI.logger.error(e.getMessage());
+                        return null;
+                    });
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
     /**
      * Deletes a single document in the specified MongoDB collection that matches the query.
      *
@@ -323,6 +668,38 @@ public class Database {
         }
     }
 
+    /**
+     * Deletes a single document from the specified MongoDB collection that matches the provided filter
+     * and returns it, in a single round trip.
+     *
+     * @param collectionName the name of the MongoDB collection from which the document will be deleted
+     * @param filter         the filter criteria used to identify the document to delete
+     * @return the deleted document, or null if no document matched or an error occurs
+     */
+    public Document findAndDelete(String collectionName, Bson filter) {
+        return findAndDelete(collectionName, filter, null);
+    }
+
+    /**
+     * Deletes a single document from the specified MongoDB collection that matches the provided filter
+     * and returns its projected fields, in a single round trip.
+     *
+     * @param collectionName the name of the MongoDB collection from which the document will be deleted
+     * @param filter         the filter criteria used to identify the document to delete
+     * @param projection     the fields of the deleted document to return, or null to return the whole document
+     * @return the deleted document, or null if no document matched or an error occurs
+     */
+    public Document findAndDelete(String collectionName, Bson filter, @Nullable Bson projection) {
+        try {
+            MongoCollection<Document> collection = getCollection(collectionName);
+
+            return collection.findOneAndDelete(filter, new FindOneAndDeleteOptions().projection(projection));
+        } catch (Exception e) {
+            MongoBanAPI.logger.error(e.getMessage());
+        }
+        return null;
+    }
+
     /**
      * Deletes multiple documents from the specified MongoDB collection that match the provided filter.
      *
@@ -374,6 +751,33 @@ public class Database {
         }
     }
 
+    /**
+     * Provides access to the read-through cache shared by the database applications.
+     *
+     * @return The {@link DatabaseCache} used to cache lookup results.
+     */
+    public DatabaseCache cache() {
+        return cache;
+    }
+
+    /**
+     * Provides access to the coalescing layer shared by the lookups of the database applications.
+     *
+     * @return The {@link SingleFlight} used to share in-flight lookups between concurrent callers.
+     */
+    public SingleFlight lookups() {
+        return lookups;
+    }
+
+    /**
+     * Provides access to the manager of the indexes backing the queries of the database applications.
+     *
+     * @return The {@link DatabaseIndexes} declaring and building the indexes of every collection.
+     */
+    public DatabaseIndexes indexes() {
+        return indexes;
+    }
+
     /**
      * Provides access to the DatabaseService instance associated with this Database.
      *
@@ -413,9 +817,9 @@ public class Database {
     }
 
     /**
-     * Closes the existing database client connection and releases any allocated resources.
-     * This method ensures that the database client is properly disconnected
-     * by setting the client object to null after closing it.
+     * Closes the existing database client connections and releases any allocated resources.
+     * This method ensures that both the blocking and the reactive-streams clients are properly disconnected
+     * by setting the client objects to null after closing them.
      * If no connection exists, the method performs no action.
      */
     public void disconnect() {
@@ -423,5 +827,9 @@ public class Database {
             client.close();
             client = null;
         }
+        if (asyncClient != null) {
+            asyncClient.close();
+            asyncClient = null;
+        }
     }
 }
@@ -1,27 +1,67 @@
 package one.tranic.mongoban.api.database;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import one.tranic.mongoban.api.MongoBanAPI;
 import one.tranic.mongoban.api.MongoDataAPI;
+import one.tranic.mongoban.api.data.BanVerdict;
+import one.tranic.mongoban.api.data.IPAddress;
 import one.tranic.mongoban.api.data.IPBanInfo;
+import one.tranic.mongoban.api.data.IPRange;
 import one.tranic.mongoban.api.data.PlayerBanInfo;
 import one.tranic.mongoban.api.data.PlayerInfo;
+import one.tranic.mongoban.api.database.codec.Codecs;
+import one.tranic.mongoban.api.database.codec.IPBanInfoCodec;
+import one.tranic.mongoban.api.database.codec.PlayerBanInfoCodec;
+import one.tranic.mongoban.api.parse.time.ExpiryParser;
+import one.tranic.t.base.TBase;
 import one.tranic.t.base.command.Operator;
 import one.tranic.t.base.task.Actions;
 import one.tranic.t.utils.Collections;
+import org.bson.BsonString;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.net.InetAddress;
+import java.util.Date;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class DatabaseBanApplication {
+    /**
+     * The fields read by the login check and the ban index; everything else stays on the server.
+     */
+    static final Bson CHECK_PROJECTION = Projections.fields(
+            Projections.include("id", "ip", "name", "operator", "duration", "reason", "expiresAt"),
+            Projections.excludeId()
+    );
+    /**
+     * The fields the cache keys of a ban are derived from, see {@link #invalidate(Document)}.
+     */
+    private static final Bson KEY_FIELDS = Projections.include("id", "name", "ip");
+
     private final Database database;
     private final DatabaseService service;
     private final String collection = "mongo_ban";
     private final ip ip;
     private final player player;
+    private final range range;
+    private final DatabaseBanIndex index;
+    private volatile @Nullable DatabaseBanBatcher batcher;
+    private volatile @Nullable ScheduledExecutorService refresher;
 
     public DatabaseBanApplication(Database database, DatabaseService service) {
         this.database = database;
@@ -29,6 +69,119 @@ public class DatabaseBanApplication {
 
         this.ip = new ip(this);
         this.player = new player(this);
+        this.range = new range(this);
+        this.index = new DatabaseBanIndex(this);
+    }
+
+    static PlayerBanInfo toPlayerBanInfo(Document banDoc, UUID uuid, String name) {
+        return new PlayerBanInfo(
+                uuid,
+                name,
+                Codecs.operator(banDoc.get("operator")),
+                banDoc.getString("duration"),
+                banDoc.getString("reason"),
+                expiresAt(banDoc)
+        );
+    }
+
+    static IPBanInfo toIPBanInfo(Document banDoc, String address) {
+        return new IPBanInfo(
+                address,
+                Codecs.operator(banDoc.get("operator")),
+                banDoc.getString("duration"),
+                banDoc.getString("reason"),
+                expiresAt(banDoc)
+        );
+    }
+
+    /**
+     * Reads the expiry of a ban document, falling back to its duration when no timestamp is stored.
+     */
+    static long expiresAt(Document banDoc) {
+        Date expiresAt = banDoc.getDate("expiresAt");
+        if (expiresAt != null) return expiresAt.getTime();
+        return ExpiryParser.parse(banDoc.getString("duration"));
+    }
+
+    Database database() {
+        return this.database;
+    }
+
+    String collection() {
+        return this.collection;
+    }
+
+    private <T> @Nullable T cached(String field, Object value, Class<T> type) {
+        return database.cache().get(collection, field, value, type);
+    }
+
+    private long stamp(String field, Object value) {
+        return database.cache().stamp(collection, field, value);
+    }
+
+    private void cache(String field, Object value, Object info, long stamp) {
+        database.cache().put(collection, field, value, info, stamp);
+    }
+
+    private boolean absent(String field, Object value) {
+        return database.cache().isAbsent(collection, field, value);
+    }
+
+    private void cacheAbsent(String field, Object value, long stamp) {
+        database.cache().putAbsent(collection, field, value, stamp);
+    }
+
+    private void invalidate(@Nullable UUID uuid, @Nullable String name, @Nullable String ip) {
+        database.cache().invalidate(collection, "id", uuid);
+        database.cache().invalidate(collection, "name", DatabasePlayerApplication.normalizeName(name));
+        database.cache().invalidate(collection, "ip", ip);
+    }
+
+    private void invalidate(@NotNull Document banDoc) {
+        invalidate(banDoc.get("id", UUID.class), banDoc.getString("name"), IPAddress.read(banDoc.get("ip")));
+    }
+
+    private static boolean sameIP(@Nullable Object stored, String address, @Nullable IPAddress ipAddress) {
+        if (ipAddress != null) return ipAddress.equals(IPAddress.fromBson(stored));
+        return stored instanceof BsonString text ? address.equals(text.getValue()) : address.equals(stored);
+    }
+
+    /**
+     * Reloads the range bans and, when loaded, the resident ban index from the database at a fixed interval,
+     * so bans written outside this application are picked up.
+     * <p>
+     * A previously scheduled refresh is cancelled.
+     *
+     * @param interval the interval between two reloads, in seconds, or 0 to disable the refresh
+     */
+    public synchronized void scheduleRefresh(long interval) {
+        ScheduledExecutorService previous = this.refresher;
+        this.refresher = null;
+        if (previous != null) previous.shutdownNow();
+        if (interval < 1) return;
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("MongoBan-BanRefresh").build());
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.SECONDS);
+        this.refresher = executor;
+    }
+
+    private void refresh() {
+        try {
+            range.load();
+            index.reload();
+        } catch (Exception e) {
+            MongoBanAPI.logger.error("Failed to refresh the ban index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the scheduled refresh and the batcher, if any.
+     */
+    public void close() {
+        scheduleRefresh(0);
+        setBatcher(null);
     }
 
     /**
@@ -49,6 +202,179 @@ public class DatabaseBanApplication {
         return this.player;
     }
 
+    /**
+     * Retrieves the {@code range} instance associated with this application.
+     *
+     * @return the {@code range} instance, which provides operations for managing CIDR range bans.
+     */
+    public range range() {
+        return this.range;
+    }
+
+    /**
+     * Retrieves the resident ban index kept in sync with this application's writes.
+     *
+     * @return the {@link DatabaseBanIndex} instance, which is only consulted once it has been loaded
+     */
+    public DatabaseBanIndex index() {
+        return this.index;
+    }
+
+    /**
+     * Installs the micro-batcher shared by concurrent {@link #check(UUID, String)} calls.
+     * <p>
+     * A previously installed batcher is closed.
+     *
+     * @param batcher the batcher to install, or null to query every check on its own
+     */
+    public synchronized void setBatcher(@Nullable DatabaseBanBatcher batcher) {
+        DatabaseBanBatcher previous = this.batcher;
+        this.batcher = batcher;
+        if (previous != null && previous != batcher) previous.close();
+    }
+
+    /**
+     * Checks whether a connection is banned by either its IP address or its player UUID.
+     * <p>
+     * Both rules are resolved with a single {@code $or} query on {@code ip} and {@code id},
+     * so a clean login only pays one database round trip. Cached bans are answered without a query,
+     * and so are connections whose IP address and UUID were both recently found not to be banned.
+     * <p>
+     * Range bans are matched first, in memory, and take precedence like other IP bans.
+     * <p>
+     * When a {@link DatabaseBanBatcher} is installed, the query is shared with concurrent checks.
+     * <p>
+     * Expired bans encountered by the query are removed asynchronously and do not match.
+     *
+     * @param uuid    the unique identifier of the player
+     * @param address the IP address of the player
+     * @return an {@code Actions<BanVerdict>} describing which rule matched, or {@link BanVerdict#NONE}
+     */
+    public Actions<BanVerdict> check(@NotNull UUID uuid, @NotNull String address) {
+        IPAddress ipAddress = IPAddress.parse(address);
+        if (ipAddress == null) return check(uuid, address, null);
+        return check(uuid, ipAddress.toString(), ipAddress);
+    }
+
+    /**
+     * Checks whether a connection is banned by either its IP address or its player UUID.
+     *
+     * @param uuid    the unique identifier of the player
+     * @param address the IP address of the player
+     * @return an {@code Actions<BanVerdict>} describing which rule matched, or {@link BanVerdict#NONE}
+     */
+    public Actions<BanVerdict> check(@NotNull UUID uuid, @NotNull IPAddress address) {
+        return check(uuid, address.toString(), address);
+    }
+
+    private Actions<BanVerdict> check(UUID uuid, String address, @Nullable IPAddress ipAddress) {
+        return new Actions<>(() -> database.lookups().run(DatabaseCache.key(collection, "check", uuid + "/" + address), () -> {
+            long idStamp = stamp("id", uuid);
+            long ipStamp = stamp("ip", address);
+            BanVerdict known = known(uuid, address, ipAddress);
+            if (known != null) return known;
+
+            DatabaseBanBatcher batcher = this.batcher;
+            List<RawBsonDocument> banDocs = batcher != null && ipAddress != null
+                    ? batcher.lookup(uuid, ipAddress)
+                    : database.queryManyRaw(collection, checkQuery(uuid, address, ipAddress), CHECK_PROJECTION);
+            return verdict(uuid, address, ipAddress, banDocs, idStamp, ipStamp);
+        }));
+    }
+
+    /**
+     * Checks whether a connection is banned by either its IP address or its player UUID, without blocking.
+     * <p>
+     * Unlike {@link #check(UUID, IPAddress)}, no thread waits for the database:
+     * the query is sent through the reactive-streams driver, or joins the next batch of the installed
+     * {@link DatabaseBanBatcher}, and the verdict is computed once the documents arrive.
+     *
+     * @param uuid    the unique identifier of the player
+     * @param address the IP address of the player
+     * @return a {@link CompletableFuture} describing which rule matched, or {@link BanVerdict#NONE}
+     */
+    public CompletableFuture<BanVerdict> checkAsync(@NotNull UUID uuid, @NotNull IPAddress address) {
+        String text = address.toString();
+        return database.lookups().runAsync(DatabaseCache.key(collection, "check", uuid + "/" + text), () -> {
+            long idStamp = stamp("id", uuid);
+            long ipStamp = stamp("ip", text);
+            BanVerdict known = known(uuid, text, address);
+            if (known != null) return CompletableFuture.completedFuture(known);
+
+            DatabaseBanBatcher batcher = this.batcher;
+            CompletableFuture<List<RawBsonDocument>> banDocs = batcher != null
+                    ? batcher.lookupAsync(uuid, address)
+                    : database.queryManyRawAsync(collection, checkQuery(uuid, text, address), CHECK_PROJECTION);
+            // The cache may be remote, so the verdict is not computed on the driver's callback thread.
+            return banDocs.thenApplyAsync(docs -> verdict(uuid, text, address, docs, idStamp, ipStamp), TBase.executor);
+        });
+    }
+
+    /**
+     * Answers a check from the range bans and the cache, without querying the database.
+     *
+     * @return the verdict, or null if the database has to be queried
+     */
+    private @Nullable BanVerdict known(UUID uuid, String address, @Nullable IPAddress ipAddress) {
+        IPBanInfo rangeBan = ipAddress != null ? range.match(ipAddress) : null;
+        if (rangeBan != null) return BanVerdict.ofIP(rangeBan);
+
+        IPBanInfo cachedIP = cached("ip", address, IPBanInfo.class);
+        if (cachedIP != null && !cachedIP.expired()) return BanVerdict.ofIP(cachedIP);
+        PlayerBanInfo cachedPlayer = cached("id", uuid, PlayerBanInfo.class);
+        if (cachedPlayer != null && !cachedPlayer.expired()) return BanVerdict.ofPlayer(cachedPlayer);
+        if (absent("ip", address) && absent("id", uuid)) return BanVerdict.NONE;
+        return null;
+    }
+
+    private static Bson checkQuery(UUID uuid, String address, @Nullable IPAddress ipAddress) {
+        return Filters.or(Filters.eq("ip", ipAddress != null ? ipAddress.toBinary() : address), Filters.eq("id", uuid));
+    }
+
+    /**
+     * Picks the verdict of a check from the ban documents matching the UUID or the address, and caches it.
+     * <p>
+     * The documents stay raw: only {@code ip} and {@code id} are read to match them,
+     * and a matching document is decoded into its record.
+     * The results are only cached if no ban of the player or the address was written since the stamps were taken.
+     */
+    private BanVerdict verdict(UUID uuid, String address, @Nullable IPAddress ipAddress, List<RawBsonDocument> banDocs, long idStamp, long ipStamp) {
+        IPBanInfo ipBan = null;
+        PlayerBanInfo playerBan = null;
+        for (RawBsonDocument banDoc : banDocs) {
+            if (ipBan == null && sameIP(banDoc.get("ip"), address, ipAddress)) {
+                IPBanInfo info = banDoc.decode(database.codecRegistry().get(IPBanInfo.class));
+                if (info.expired()) ip.remove(address).async();
+                else ipBan = info;
+            }
+            if (playerBan == null && uuid.equals(Codecs.uuid(banDoc.get("id")))) {
+                PlayerBanInfo info = banDoc.decode(database.codecRegistry().get(PlayerBanInfo.class));
+                if (info.expired()) player.remove(uuid).async();
+                else playerBan = info;
+            }
+        }
+        if (playerBan != null) cache("id", uuid, playerBan, idStamp);
+        else cacheAbsent("id", uuid, idStamp);
+        if (ipBan == null) cacheAbsent("ip", address, ipStamp);
+        if (ipBan != null) {
+            cache("ip", address, ipBan, ipStamp);
+            return BanVerdict.ofIP(ipBan);
+        }
+        if (playerBan != null) return BanVerdict.ofPlayer(playerBan);
+        return BanVerdict.NONE;
+    }
+
+    /**
+     * Checks whether a connection is banned by either its IP address or its player UUID.
+     *
+     * @param uuid    the unique identifier of the player
+     * @param address the IP address of the player
+     * @return an {@code Actions<BanVerdict>} describing which rule matched, or {@link BanVerdict#NONE}
+     */
+    public Actions<BanVerdict> check(@NotNull UUID uuid, @NotNull InetAddress address) {
+        return check(uuid, IPAddress.of(address));
+    }
+
     public static class player {
         private final DatabaseBanApplication application;
 
@@ -59,8 +385,8 @@ public class DatabaseBanApplication {
         /**
          * Retrieves ban information for a player identified by the given UUID.
          * <p>
-         * The method queries the database for a document matching the provided UUID
-         * and constructs a {@code PlayerBanInfo} object.
+         * The method reads through the cache and otherwise queries the database for a document
+         * matching the provided UUID and constructs a {@code PlayerBanInfo} object.
          * <p>
          * If no matching document is found, it returns {@code null}.
          *
@@ -69,41 +395,50 @@ public class DatabaseBanApplication {
          * or {@code null} if the player is not banned
          */
         public Actions<PlayerBanInfo> find(UUID uuid) {
-            return new Actions<>(() -> {
-                Document query = new Document("id", uuid);
-                Document banDoc = application.database.queryOne(application.collection, query);
-                if (banDoc != null) {
-                    PlayerBanInfo info = new PlayerBanInfo(
-                            uuid,
-                            banDoc.getString("name"),
-                            banDoc.get("operator", Operator.class),
-                            banDoc.getString("duration"),
-                            banDoc.getString("reason")
-                    );
+            return new Actions<>(() -> application.database.lookups().run(DatabaseCache.key(application.collection, "id", uuid), () -> {
+                PlayerBanInfo cached = application.cached("id", uuid, PlayerBanInfo.class);
+                if (cached != null && !cached.expired()) return cached;
+                if (application.absent("id", uuid)) return null;
+
+                long stamp = application.stamp("id", uuid);
+                PlayerBanInfo info = application.database.queryOne(application.collection, Filters.eq("id", uuid), PlayerBanInfoCodec.FIELDS, PlayerBanInfo.class);
+                if (info != null) {
                     if (info.expired()) remove(uuid).async();
-                    else return info;
-                }
+                    else {
+                        application.cache("id", uuid, info, stamp);
+                        return info;
+                    }
+                } else application.cacheAbsent("id", uuid, stamp);
                 return null;
-            });
+            }));
         }
 
+        /**
+         * Retrieves the ban of a player by their name, ignoring case.
+         *
+         * @param name the name of the player
+         * @return an {@code Actions<PlayerBanInfo>} resolving to the ban, or null if the player is not banned
+         */
         public Actions<PlayerBanInfo> find(@NotNull String name) {
-            return new Actions<>(() -> {
-                Document query = new Document("name", name);
-                Document banDoc = application.database.queryOne(application.collection, query);
-                if (banDoc != null) {
-                    PlayerBanInfo info = new PlayerBanInfo(
-                            banDoc.get("id", UUID.class),
-                            name,
-                            banDoc.get("operator", Operator.class),
-                            banDoc.getString("duration"),
-                            banDoc.getString("reason")
-                    );
-                    if (info.expired()) remove(name).async();
-                    else return info;
-                }
+            String nameLower = DatabasePlayerApplication.normalizeName(name);
+            return new Actions<>(() -> application.database.lookups().run(DatabaseCache.key(application.collection, "name", nameLower), () -> {
+                PlayerBanInfo cached = application.cached("name", nameLower, PlayerBanInfo.class);
+                if (cached != null && !cached.expired()) return cached;
+                if (application.absent("name", nameLower)) return null;
+
+                long stamp = application.stamp("name", nameLower);
+                PlayerBanInfo info = application.database.queryOne(application.collection, Filters.eq("nameLower", nameLower), PlayerBanInfoCodec.FIELDS, PlayerBanInfo.class);
+                if (info != null) {
+                    // remove(String) takes an address, so expired name matches are removed by their UUID.
+                    if (info.expired()) {
+                        if (info.uuid() != null) remove(info.uuid()).async();
+                    } else {
+                        application.cache("name", nameLower, info, stamp);
+                        return info;
+                    }
+                } else application.cacheAbsent("name", nameLower, stamp);
                 return null;
-            });
+            }));
         }
 
         /**
@@ -118,6 +453,7 @@ public class DatabaseBanApplication {
          * @return an {@code Actions<Void>} instance representing the result of the database update operation
          */
         public Actions<PlayerBanInfo> add(@Nullable UUID uuid, @NotNull String name, Operator operator, String duration, @Nullable String ip, @Nullable String reason) {
+            String address = IPAddress.canonical(ip);
             return new Actions<>(() -> {
                 Document query;
                 if (uuid == null) {
@@ -125,19 +461,72 @@ public class DatabaseBanApplication {
                 } else {
                     query = new Document("id", uuid);
                 }
-                Map<String, Object> updateMap = Collections.newHashMap();
-                if (uuid != null) updateMap.put("name", name);
-                updateMap.put("operator", operator);
-                updateMap.put("duration", duration);
-                if (ip != null) updateMap.put("ip", ip);
-                updateMap.put("reason", reason != null ? reason : "<Banned by the server>");
+                long expiresAt = ExpiryParser.parse(duration);
+                Document updateDoc = banUpdate(uuid, name, operator, duration, expiresAt, address, reason);
 
-                application.database.update(application.collection, query, new Document(updateMap));
+                application.database.update(application.collection, query, updateDoc);
+                application.invalidate(uuid, name, address);
+                application.index.put(new PlayerBanInfo(uuid, name, operator, duration, updateDoc.getString("reason"), expiresAt), address);
 
-                return new PlayerBanInfo(uuid, name, operator, duration, reason);
+                return new PlayerBanInfo(uuid, name, operator, duration, reason, expiresAt);
             });
         }
 
+        /**
+         * Bans several players sharing one IP address with a single unordered bulk upsert.
+         *
+         * @param players  the players to ban
+         * @param operator the operator performing this action
+         * @param duration the duration of the bans
+         * @param address  the canonical IP address of the players
+         * @param reason   the reason for the bans, or null to use the default "<Banned by the server>" message
+         * @return the bans written, or an empty list if the bulk write failed
+         */
+        List<PlayerBanInfo> addAll(List<PlayerInfo> players, Operator operator, String duration, @Nullable String address, @Nullable String reason) {
+            long expiresAt = ExpiryParser.parse(duration);
+            List<WriteModel<Document>> models = Collections.newArrayList(players.size());
+            List<PlayerBanInfo> bans = Collections.newArrayList(players.size());
+            for (PlayerInfo player : players) {
+                Document updateDoc = banUpdate(player.uuid(), player.name(), operator, duration, expiresAt, address, reason);
+                models.add(banUpsert(player.uuid(), updateDoc));
+                bans.add(new PlayerBanInfo(player.uuid(), player.name(), operator, duration, updateDoc.getString("reason"), expiresAt));
+            }
+
+            if (!application.database.bulkWrite(application.collection, models, false)) {
+                MongoBanAPI.logger.error("Failed to ban the {} players recorded on {}", players.size(), address);
+                return Collections.newArrayList();
+            }
+            for (PlayerBanInfo ban : bans) {
+                application.invalidate(ban.uuid(), ban.name(), address);
+                application.index.put(ban, address);
+            }
+            return bans;
+        }
+
+        /**
+         * Builds the bulk upsert of a player's ban, keyed on the player's UUID.
+         */
+        static UpdateOneModel<Document> banUpsert(UUID uuid, Document updateDoc) {
+            return new UpdateOneModel<>(Filters.eq("id", uuid), new Document("$set", updateDoc), new UpdateOptions().upsert(true));
+        }
+
+        /**
+         * Builds the fields of a ban written by {@link #add} and {@link #addAll}.
+         */
+        static Document banUpdate(@Nullable UUID uuid, String name, Operator operator, String duration, long expiresAt, @Nullable String address, @Nullable String reason) {
+            Document updateDoc = new Document();
+            if (uuid != null) {
+                updateDoc.append("name", name);
+                updateDoc.append("nameLower", DatabasePlayerApplication.normalizeName(name));
+            }
+            updateDoc.append("operator", operator);
+            updateDoc.append("duration", duration);
+            updateDoc.append("expiresAt", ExpiryParser.toDate(expiresAt));
+            if (address != null) updateDoc.append("ip", IPAddress.toBson(address));
+            updateDoc.append("reason", reason != null ? reason : "<Banned by the server>");
+            return updateDoc;
+        }
+
         /**
          * Removes a player's record from the database collection based on their unique identifier (UUID).
          * <p>
@@ -148,7 +537,7 @@ public class DatabaseBanApplication {
          */
         public Actions<Void> remove(@NotNull UUID playerId) {
             return new Actions<>(() -> {
-                application.database.delete(application.collection, "id", playerId);
+                delete(playerId);
 
                 return null;
             });
@@ -157,8 +546,11 @@ public class DatabaseBanApplication {
         /**
          * Removes a list of players' ban records from the database.
          * <p>
-         * Iterates through the provided {@code banInfos} list and deletes each player's
-         * associated record from the database, using the player's unique identifier (UUID).
+         * The records of all players are deleted with one {@code $in} query on their unique identifiers (UUIDs).
+         * <p>
+         * The cache entries of the players' UUIDs and names are invalidated from the given records.
+         * A record does not carry the IP address stored with the ban, so the cached IP lookups are left
+         * to expire; use {@link #remove(List, String)} when the address is known.
          *
          * @param banInfos a list of {@link PlayerBanInfo} objects representing the players
          *                 whose ban records are to be removed. Must not be null.
@@ -166,9 +558,33 @@ public class DatabaseBanApplication {
          * the specified players' ban records.
          */
         public Actions<Void> remove(@NotNull List<PlayerBanInfo> banInfos) {
+            return remove(banInfos, null);
+        }
+
+        /**
+         * Removes a list of players' ban records stored with an IP address from the database,
+         * with one {@code $in} delete on their unique identifiers (UUIDs).
+         *
+         * @param banInfos a list of {@link PlayerBanInfo} objects representing the players
+         *                 whose ban records are to be removed. Must not be null.
+         * @param address  the canonical IP address stored with the bans, whose cached lookups are invalidated too,
+         *                 or null if unknown
+         * @return an {@link Actions} object encapsulating the database operation to remove
+         * the specified players' ban records.
+         */
+        public Actions<Void> remove(@NotNull List<PlayerBanInfo> banInfos, @Nullable String address) {
             return new Actions<>(() -> {
-                for (PlayerBanInfo banInfo : banInfos)
-                    application.database.delete(application.collection, "id", banInfo.uuid());
+                List<UUID> playerIds = Collections.newArrayList(banInfos.size());
+                for (PlayerBanInfo banInfo : banInfos) if (banInfo.uuid() != null) playerIds.add(banInfo.uuid());
+                if (playerIds.isEmpty()) return null;
+
+                application.database.deleteMany(application.collection, Filters.in("id", playerIds));
+                for (PlayerBanInfo banInfo : banInfos) {
+                    if (banInfo.uuid() == null) continue;
+                    application.invalidate(banInfo.uuid(), banInfo.name(), null);
+                    application.index.removePlayer(banInfo.uuid());
+                }
+                if (address != null) application.invalidate(null, null, address);
 
                 return null;
             });
@@ -200,8 +616,14 @@ public class DatabaseBanApplication {
          * @return an {@code Actions<Void>} instance representing the operation to remove the records
          */
         public Actions<Void> remove(@NotNull String playerIp) {
+            String address = Objects.requireNonNull(IPAddress.canonical(playerIp));
             return new Actions<>(() -> {
-                application.database.deleteMany(application.collection, "ip", playerIp);
+                Document query = new Document("ip", IPAddress.toBson(address));
+                List<Document> banDocs = application.database.queryMany(application.collection, query, KEY_FIELDS, Document.class);
+                application.database.deleteMany(application.collection, query);
+                for (Document banDoc : banDocs) application.invalidate(banDoc);
+                application.invalidate(null, null, address);
+                application.index.removeIP(address);
                 return null;
             });
         }
@@ -210,10 +632,20 @@ public class DatabaseBanApplication {
             return new Actions<>(() -> {
                 PlayerBanInfo info = find(name).sync();
                 if (info == null) return null;
-                application.database.delete(application.collection, "name", name);
+                Document banDoc = application.database.findAndDelete(application.collection, Filters.eq("nameLower", DatabasePlayerApplication.normalizeName(name)), KEY_FIELDS);
+                if (banDoc != null) application.invalidate(banDoc);
+                application.invalidate(info.uuid(), name, null);
+                application.index.removePlayer(name);
                 return info;
             });
         }
+
+        private void delete(UUID playerId) {
+            Document banDoc = application.database.findAndDelete(application.collection, Filters.eq("id", playerId), KEY_FIELDS);
+            if (banDoc != null) application.invalidate(banDoc);
+            application.invalidate(playerId, null, null);
+            application.index.removePlayer(playerId);
+        }
     }
 
     public static class ip {
@@ -229,31 +661,31 @@ public class DatabaseBanApplication {
          * The method updates the database with the provided ban details and propagates
          * the ban information to players linked to the given IP address.
          *
-         * @param ip       the IP address to ban
+         * @param address  the IP address to ban
          * @param operator the operator responsible for issuing the ban
          * @param duration the duration of the ban (e.g., a timestamp or duration string)
          * @param reason   an optional reason for the ban; defaults to "Banned by the server" if null
          * @return an {@code Actions<List<PlayerBanInfo>>} containing a list of {@code PlayerInfo}
          * representing players associated with the banned IP address
          */
-        public Actions<List<PlayerBanInfo>> add(String ip, Operator operator, String duration, @Nullable String reason) {
+        public Actions<List<PlayerBanInfo>> add(String address, Operator operator, String duration, @Nullable String reason) {
+            String ip = IPAddress.canonical(address);
             return new Actions<>(() -> {
-                Document query = new Document("ip", ip);
+                Document query = new Document("ip", IPAddress.toBson(ip));
+                long expiresAt = ExpiryParser.parse(duration);
                 Document updateDoc = new Document()
                         .append("operator", operator)
                         .append("duration", duration)
+                        .append("expiresAt", ExpiryParser.toDate(expiresAt))
                         .append("reason", reason != null ? reason : "<Banned by the server>");
 
                 application.database.update(application.collection, query, updateDoc);
+                application.invalidate(null, null, ip);
+                application.index.put(new IPBanInfo(ip, operator, duration, updateDoc.getString("reason"), expiresAt));
 
                 List<PlayerInfo> playerList = MongoDataAPI.getDatabase().player().finds(ip).sync();
-                List<PlayerBanInfo> banList = Collections.newArrayList(playerList.size());
-                if (!playerList.isEmpty()) for (PlayerInfo player : playerList) {
-                    application.player.add(player.uuid(), player.name(), operator, duration, ip, reason).sync();
-                    banList.add(new PlayerBanInfo(player.uuid(), player.name(), operator, duration, reason));
-                }
-
-                return banList;
+                if (playerList.isEmpty()) return Collections.newArrayList();
+                return application.player.addAll(playerList, operator, duration, ip, reason);
             });
         }
 
@@ -277,8 +709,8 @@ public class DatabaseBanApplication {
         /**
          * Finds an IP ban record associated with the specified IP address.
          * <p>
-         * The method queries the database for an IP ban document containing details such as
-         * the responsible operator, the duration of the ban, and the reason for the ban.
+         * The method reads through the cache and otherwise queries the database for an IP ban document
+         * containing details such as the responsible operator, the duration of the ban, and the reason for the ban.
          * <p>
          * If the ban is found to be expired, it is removed asynchronously.
          *
@@ -287,20 +719,54 @@ public class DatabaseBanApplication {
          * or null if no ban is associated with the specified address
          */
         public Actions<IPBanInfo> find(String address) {
-            return new Actions<>(() -> {
-                Document query = new Document("ip", address);
-                Document banDoc = application.database.queryOne(application.collection, query);
-                if (banDoc != null) {
-                    IPBanInfo info = new IPBanInfo(
-                            address,
-                            banDoc.get("operator", Operator.class),
-                            banDoc.getString("duration"),
-                            banDoc.getString("reason")
-                    );
-                    if (info.expired()) remove(address).async();
-                    else return info;
-                }
+            String ip = Objects.requireNonNull(IPAddress.canonical(address));
+            return new Actions<>(() -> application.database.lookups().run(DatabaseCache.key(application.collection, "ip", ip), () -> {
+                IPBanInfo cached = application.cached("ip", ip, IPBanInfo.class);
+                if (cached != null && !cached.expired()) return cached;
+                if (application.absent("ip", ip)) return null;
+
+                long stamp = application.stamp("ip", ip);
+                IPBanInfo info = application.database.queryOne(application.collection, Filters.eq("ip", IPAddress.toBson(ip)), IPBanInfoCodec.FIELDS, IPBanInfo.class);
+                if (info != null) {
+                    if (info.expired()) remove(ip).async();
+                    else {
+                        application.cache("ip", ip, info, stamp);
+                        return info;
+                    }
+                } else application.cacheAbsent("ip", ip, stamp);
                 return null;
+            }));
+        }
+
+        /**
+         * Finds an IP ban record associated with the specified IP address without blocking.
+         * <p>
+         * The lookup reads through the cache like {@link #find(String)},
+         * but the database is queried through the reactive-streams driver.
+         *
+         * @param address the IP address to query the ban record for
+         * @return a {@link CompletableFuture} holding the {@code IPBanInfo} if a ban is found,
+         * or null if no ban is associated with the specified address
+         */
+        public CompletableFuture<IPBanInfo> findAsync(@NotNull IPAddress address) {
+            String ip = address.toString();
+            return application.database.lookups().runAsync(DatabaseCache.key(application.collection, "ip", ip), () -> {
+                IPBanInfo cached = application.cached("ip", ip, IPBanInfo.class);
+                if (cached != null && !cached.expired()) return CompletableFuture.completedFuture(cached);
+                if (application.absent("ip", ip)) return CompletableFuture.completedFuture(null);
+
+                long stamp = application.stamp("ip", ip);
+                return application.database.queryOneAsync(application.collection, Filters.eq("ip", address.toBinary()), IPBanInfoCodec.FIELDS, IPBanInfo.class)
+                        .thenApplyAsync(info -> {
+                            if (info != null) {
+                                if (info.expired()) remove(ip).async();
+                                else {
+                                    application.cache("ip", ip, info, stamp);
+                                    return info;
+                                }
+                            } else application.cacheAbsent("ip", ip, stamp);
+                            return null;
+                        }, TBase.executor);
             });
         }
 
@@ -326,7 +792,6 @@ public class DatabaseBanApplication {
          */
         public Actions<Void> remove(String address) {
             return new Actions<>(() -> {
-                application.database.deleteMany(application.collection, "ip", address);
                 application.player.remove(address).sync();
 
                 return null;
@@ -356,22 +821,14 @@ public class DatabaseBanApplication {
          */
         public Actions<PlayerBanInfo[]> finds(String address) {
             return new Actions<>(() -> {
-                Document query = new Document("ip", new Document("$elemMatch", address));
-                List<Document> playerDocs = application.database.queryMany(application.collection, query);
+                List<PlayerBanInfo> bans = application.database.queryMany(application.collection, Filters.eq("ip", IPAddress.toBson(address)), PlayerBanInfoCodec.FIELDS, PlayerBanInfo.class);
                 List<PlayerBanInfo> players = Collections.newArrayList();
                 List<PlayerBanInfo> removePlayers = Collections.newArrayList();
-                for (Document playerDoc : playerDocs) {
-                    PlayerBanInfo info = new PlayerBanInfo(
-                            playerDoc.get("uuid", UUID.class),
-                            playerDoc.getString("name"),
-                            playerDoc.get("operator", Operator.class),
-                            playerDoc.getString("duration"),
-                            playerDoc.getString("reason")
-                    );
+                for (PlayerBanInfo info : bans) {
                     if (info.expired()) removePlayers.add(info);
                     else players.add(info);
                 }
-                if (!removePlayers.isEmpty()) application.player.remove(removePlayers).async();
+                if (!removePlayers.isEmpty()) application.player.remove(removePlayers, IPAddress.canonical(address)).async();
                 return players.toArray(new PlayerBanInfo[0]);
             });
         }
@@ -387,4 +844,196 @@ public class DatabaseBanApplication {
             return finds(address.getHostAddress());
         }
     }
+
+    public static class range {
+        private final DatabaseBanApplication application;
+        private final Object writeLock = new Object();
+        private volatile IPRangeTrie<IPBanInfo> trie = new IPRangeTrie<>();
+        /**
+         * The writes applied while a reload is querying the database, replayed on the reloaded trie; guarded by {@link #writeLock}.
+         */
+        private @Nullable List<Consumer<IPRangeTrie<IPBanInfo>>> journal;
+        private boolean loaded = false;
+
+        public range(DatabaseBanApplication application) {
+            this.application = application;
+            this.application.database.cache().addInvalidationListener(this::invalidated);
+        }
+
+        private static @Nullable IPRange parse(@Nullable String cidr) {
+            if (cidr == null) return null;
+            try {
+                return IPRange.parse(cidr);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Loads every range ban from the database into the in-memory trie used at login, replacing the previous ranges.
+         * <p>
+         * The trie is rebuilt aside and swapped in at once, replaying the ranges added or removed meanwhile.
+         * If the database cannot be read, the previous ranges are kept.
+         */
+        public synchronized void load() {
+            synchronized (writeLock) {
+                journal = Collections.newArrayList();
+            }
+
+            IPRangeTrie<IPBanInfo> fresh = new IPRangeTrie<>();
+            try {
+                List<IPBanInfo> bans = Collections.newArrayList();
+                application.database.getCollection(application.collection, IPBanInfo.class)
+                        .find(Filters.exists("range"))
+                        .projection(IPBanInfoCodec.FIELDS)
+                        .into(bans);
+                for (IPBanInfo info : bans) {
+                    IPRange range = parse(info.ip());
+                    if (range != null && !info.expired()) fresh.put(range, info);
+                }
+            } catch (Exception e) {
+                synchronized (writeLock) {
+                    journal = null;
+                }
+                MongoBanAPI.logger.error("Failed to load the range bans, keeping the previous ranges: {}", e.getMessage());
+                return;
+            }
+
+            synchronized (writeLock) {
+                if (journal != null) for (Consumer<IPRangeTrie<IPBanInfo>> write : journal) write.accept(fresh);
+                journal = null;
+                trie = fresh;
+            }
+            if (!loaded) MongoBanAPI.logger.info("Loaded {} range bans", fresh.size());
+            loaded = true;
+        }
+
+        /**
+         * Applies a write to the current trie, and records it for a reload in progress.
+         */
+        private void write(Consumer<IPRangeTrie<IPBanInfo>> write) {
+            synchronized (writeLock) {
+                write.accept(trie);
+                if (journal != null) journal.add(write);
+            }
+        }
+
+        /**
+         * Bans every address inside a CIDR range, such as {@code 203.0.113.0/24} or {@code 2001:db8::/64}.
+         * <p>
+         * The range is stored as a single document, however many addresses it covers.
+         *
+         * @param range    the range to ban
+         * @param operator the operator responsible for issuing the ban
+         * @param duration the duration of the ban
+         * @param reason   an optional reason for the ban; defaults to "Banned by the server" if null
+         * @return an {@code Actions<IPBanInfo>} holding the stored ban, whose {@code ip} is the canonical range
+         */
+        public Actions<IPBanInfo> add(@NotNull IPRange range, Operator operator, String duration, @Nullable String reason) {
+            return new Actions<>(() -> {
+                String cidr = range.toString();
+                long expiresAt = ExpiryParser.parse(duration);
+                Document updateDoc = new Document()
+                        .append("operator", operator)
+                        .append("duration", duration)
+                        .append("expiresAt", ExpiryParser.toDate(expiresAt))
+                        .append("reason", reason != null ? reason : "<Banned by the server>");
+
+                application.database.update(application.collection, new Document("range", cidr), updateDoc);
+                IPBanInfo info = new IPBanInfo(cidr, operator, duration, updateDoc.getString("reason"), expiresAt);
+                write(current -> current.put(range, info));
+                application.database.cache().invalidate(application.collection, "range", cidr);
+                return info;
+            });
+        }
+
+        /**
+         * Retrieves the ban stored for exactly the given range.
+         *
+         * @param range the range to look up
+         * @return an {@code Actions<IPBanInfo>} holding the ban, or null if the range is not banned
+         */
+        public Actions<IPBanInfo> find(@NotNull IPRange range) {
+            return new Actions<>(() -> {
+                IPBanInfo info = application.database.queryOne(application.collection, Filters.eq("range", range.toString()), IPBanInfoCodec.FIELDS, IPBanInfo.class);
+                return info == null || info.expired() ? null : info;
+            });
+        }
+
+        /**
+         * Lifts the ban of a range. Narrower or wider ranges overlapping it stay banned.
+         *
+         * @param range the range to unban
+         * @return an {@code Actions<Void>} representing the completion of the removal
+         */
+        public Actions<Void> remove(@NotNull IPRange range) {
+            return new Actions<>(() -> {
+                String cidr = range.toString();
+                application.database.deleteMany(application.collection, "range", cidr);
+                write(current -> current.remove(range));
+                application.database.cache().invalidate(application.collection, "range", cidr);
+                return null;
+            });
+        }
+
+        /**
+         * Finds the most specific active range ban containing an address, without querying the database.
+         *
+         * @param address the address to match
+         * @return the matching ban, or null if no active range contains the address
+         */
+        public @Nullable IPBanInfo match(@NotNull InetAddress address) {
+            return match(address.getAddress());
+        }
+
+        /**
+         * Finds the most specific active range ban containing an address, without querying the database.
+         *
+         * @param address the address to match
+         * @return the matching ban, or null if no active range contains the address
+         */
+        public @Nullable IPBanInfo match(@NotNull IPAddress address) {
+            return match(address.bytes());
+        }
+
+        private @Nullable IPBanInfo match(byte[] address) {
+            IPRangeTrie<IPBanInfo> current = trie;
+            if (current.isEmpty()) return null;
+            IPBanInfo info = current.match(address);
+            if (info != null && info.expired()) {
+                IPRange range = parse(info.ip());
+                if (range != null) remove(range).async();
+                return null;
+            }
+            return info;
+        }
+
+        /**
+         * Finds the most specific active range ban containing an address, without querying the database.
+         *
+         * @param address the address literal to match
+         * @return the matching ban, or null if the address is not a literal or no active range contains it
+         */
+        public @Nullable IPBanInfo match(@NotNull String address) {
+            if (trie.isEmpty()) return null;
+            IPAddress ip = IPAddress.parse(address);
+            return ip != null ? match(ip) : null;
+        }
+
+        /**
+         * Re-reads a range written on another server.
+         */
+        private void invalidated(@Nullable String key) {
+            String prefix = DatabaseCache.key(application.collection, "range", "");
+            if (key == null || !key.startsWith(prefix)) return;
+            IPRange range = parse(key.substring(prefix.length()));
+            if (range == null) return;
+
+            TBase.runAsync(() -> {
+                IPBanInfo info = application.database.queryOne(application.collection, Filters.eq("range", range.toString()), IPBanInfoCodec.FIELDS, IPBanInfo.class);
+                if (info == null || info.expired()) write(current -> current.remove(range));
+                else write(current -> current.put(range, info));
+            });
+        }
+    }
 }
@@ -0,0 +1,198 @@
+package one.tranic.mongoban.api.database;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mongodb.client.model.Filters;
+import one.tranic.mongoban.api.data.IPAddress;
+import one.tranic.mongoban.api.database.codec.Codecs;
+import one.tranic.t.utils.Collections;
+import org.bson.RawBsonDocument;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * An adaptive micro-batcher for the login-time ban lookups of {@link DatabaseBanApplication}.
+ * <p>
+ * Lookups arriving while another batch is being queried are queued, and the next batch resolves
+ * all of them with one {@code $in} query on {@code id} and {@code ip}. The matching documents are
+ * then handed back to each waiting caller.
+ * <p>
+ * A lookup on an idle server is queried immediately. While a batch is in flight, queued lookups
+ * are sent together once {@code window} has elapsed or {@code maxBatch} lookups are waiting,
+ * so the delay is paid only under load.
+ * <p>
+ * Batches are queried through the reactive-streams driver and the window is kept by a scheduled timer,
+ * so no thread waits on a batch except callers of the blocking {@link #lookup(UUID, IPAddress)}.
+ */
+public class DatabaseBanBatcher {
+    private final BiFunction<Set<UUID>, Set<IPAddress>, CompletableFuture<List<RawBsonDocument>>> query;
+    private final long window;
+    private final int maxBatch;
+    private final ScheduledExecutorService scheduler;
+
+    private final Queue<Lookup> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Constructs a new DatabaseBanBatcher.
+     *
+     * @param application the ban application whose collection is queried
+     * @param window      the longest time in milliseconds a batch waits for more lookups while under load, or 0 to never wait
+     * @param maxBatch    the maximum number of lookups resolved by one query
+     */
+    public DatabaseBanBatcher(@NotNull DatabaseBanApplication application, long window, int maxBatch) {
+        this((uuids, addresses) -> application.database().queryManyRawAsync(application.collection(),
+                Filters.or(Filters.in("ip", addresses.stream().map(IPAddress::toBinary).toList()), Filters.in("id", uuids)),
+                DatabaseBanApplication.CHECK_PROJECTION), window, maxBatch);
+    }
+
+    /**
+     * Constructs a new DatabaseBanBatcher resolving each batch with the given query.
+     *
+     * @param query    the query returning the ban documents matching any of the UUIDs or addresses of a batch
+     * @param window   the longest time in milliseconds a batch waits for more lookups while under load, or 0 to never wait
+     * @param maxBatch the maximum number of lookups resolved by one query
+     */
+    DatabaseBanBatcher(@NotNull BiFunction<Set<UUID>, Set<IPAddress>, CompletableFuture<List<RawBsonDocument>>> query, long window, int maxBatch) {
+        if (window < 0) throw new IllegalArgumentException("Batch window must not be negative");
+        if (maxBatch < 1) throw new IllegalArgumentException("Batch size must be positive");
+
+        this.query = query;
+        this.window = window;
+        this.maxBatch = maxBatch;
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("MongoBan-BanBatcher").build());
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.scheduler = executor;
+    }
+
+    /**
+     * Retrieves the ban documents matching a player UUID or an IP address, sharing the query with concurrent lookups.
+     * <p>
+     * This method blocks the calling thread until the batch of the lookup has been queried.
+     *
+     * @param uuid    the unique identifier of the player
+     * @param address the IP address of the player
+     * @return the ban documents whose {@code id} equals the UUID or whose {@code ip} equals the address
+     */
+    public List<RawBsonDocument> lookup(@NotNull UUID uuid, @NotNull IPAddress address) {
+        try {
+            return lookupAsync(uuid, address).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the ban documents matching a player UUID or an IP address without blocking the caller.
+     * <p>
+     * The lookup is sent right away when no batch is in flight, otherwise it joins the next batch.
+     *
+     * @param uuid    the unique identifier of the player
+     * @param address the IP address of the player
+     * @return a {@link CompletableFuture} completing with the ban documents whose {@code id} equals the UUID
+     * or whose {@code ip} equals the address
+     */
+    public CompletableFuture<List<RawBsonDocument>> lookupAsync(@NotNull UUID uuid, @NotNull IPAddress address) {
+        Lookup lookup = new Lookup(uuid, address, new CompletableFuture<>());
+        queue.add(lookup);
+        int waiting = queued.incrementAndGet();
+
+        if (window == 0 || waiting >= maxBatch || inFlight.get() == 0 || scheduler.isShutdown()) flush();
+        else if (scheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::flushWindow, window, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                flush();
+            }
+        }
+        return lookup.result();
+    }
+
+    /**
+     * Stops the window timer. Lookups queued afterwards are sent right away.
+     */
+    public void close() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private void flushWindow() {
+        scheduled.set(false);
+        flush();
+    }
+
+    /**
+     * Sends every queued lookup, in batches of at most {@code maxBatch}.
+     */
+    private void flush() {
+        while (true) {
+            List<Lookup> batch = Collections.newArrayList();
+            Lookup next;
+            while (batch.size() < maxBatch && (next = queue.poll()) != null) batch.add(next);
+            if (batch.isEmpty()) return;
+            queued.addAndGet(-batch.size());
+            send(batch);
+        }
+    }
+
+    private void send(List<Lookup> batch) {
+        Set<UUID> uuids = new HashSet<>(batch.size());
+        Set<IPAddress> addresses = new HashSet<>(batch.size());
+        for (Lookup lookup : batch) {
+            uuids.add(lookup.uuid());
+            addresses.add(lookup.address());
+        }
+
+        inFlight.incrementAndGet();
+        CompletableFuture<List<RawBsonDocument>> banDocs;
+        try {
+            banDocs = query.apply(uuids, addresses);
+        } catch (RuntimeException e) {
+            banDocs = CompletableFuture.failedFuture(e);
+        }
+        banDocs.whenComplete((docs, error) -> {
+            inFlight.decrementAndGet();
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                for (Lookup lookup : batch) lookup.result().completeExceptionally(cause);
+            } else resolve(batch, docs);
+        });
+    }
+
+    private static void resolve(List<Lookup> batch, List<RawBsonDocument> banDocs) {
+        List<IPAddress> addressOf = Collections.newArrayList(banDocs.size());
+        for (RawBsonDocument banDoc : banDocs) addressOf.add(IPAddress.fromBson(banDoc.get("ip")));
+
+        for (Lookup lookup : batch) {
+            List<RawBsonDocument> matches = Collections.newArrayList();
+            for (int i = 0; i < banDocs.size(); i++) {
+                if (lookup.address().equals(addressOf.get(i)) || lookup.uuid().equals(Codecs.uuid(banDocs.get(i).get("id"))))
+                    matches.add(banDocs.get(i));
+            }
+            lookup.result().complete(matches);
+        }
+    }
+
+    private record Lookup(UUID uuid, IPAddress address, CompletableFuture<List<RawBsonDocument>> result) {
+    }
+}
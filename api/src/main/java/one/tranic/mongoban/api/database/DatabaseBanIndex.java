@@ -0,0 +1,309 @@
+package one.tranic.mongoban.api.database;
+
+import one.tranic.mongoban.api.MongoBanAPI;
+import one.tranic.mongoban.api.data.IPAddress;
+import one.tranic.mongoban.api.data.IPBanInfo;
+import one.tranic.mongoban.api.data.PlayerBanInfo;
+import one.tranic.t.base.TBase;
+import one.tranic.t.utils.Collections;
+import org.bson.Document;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A resident, in-memory index of all active bans stored in {@code mongo_ban}.
+ * <p>
+ * The index is loaded from the database and is then kept current by the write paths of
+ * {@link DatabaseBanApplication}, allowing the login path to rule out bans without a MongoDB round trip.
+ * <p>
+ * A hit only means that a ban is likely to exist, callers are expected to confirm it against the database.
+ * <p>
+ * Bans written elsewhere, by another server, through the API of another process or directly in MongoDB,
+ * are only seen once the index is reloaded, see {@link DatabaseBanApplication#scheduleRefresh(long)}.
+ * When the cache is shared between servers, bans written by other servers are also picked up
+ * right away from its invalidation messages.
+ */
+public class DatabaseBanIndex {
+    private final DatabaseBanApplication application;
+    private final Object writeLock = new Object();
+
+    private volatile Entries entries = new Entries();
+    /**
+     * The writes applied while a reload is querying the database, replayed on the reloaded entries; guarded by {@link #writeLock}.
+     */
+    private @Nullable List<Consumer<Entries>> journal;
+
+    private volatile boolean enabled = false;
+    private volatile boolean loaded = false;
+
+    public DatabaseBanIndex(DatabaseBanApplication application) {
+        this.application = application;
+        this.application.database().cache().addInvalidationListener(this::invalidated);
+    }
+
+    /**
+     * Loads every ban document from the database into the index, replacing the previous entries.
+     * <p>
+     * The index is rebuilt aside and swapped in at once, so lookups keep using the previous entries meanwhile.
+     * Writes issued through {@link DatabaseBanApplication} while loading are applied to both, so no ban added
+     * during a reload is missed. If the database cannot be read, the previous entries are kept.
+     */
+    public synchronized void load() {
+        enabled = true;
+        synchronized (writeLock) {
+            journal = Collections.newArrayList();
+        }
+
+        Entries fresh = new Entries();
+        try {
+            List<Document> banDocs = Collections.newArrayList();
+            application.database().getCollection(application.collection())
+                    .find()
+                    .projection(DatabaseBanApplication.CHECK_PROJECTION)
+                    .into(banDocs);
+            for (Document banDoc : banDocs) {
+                UUID uuid = banDoc.get("id", UUID.class);
+                IPAddress ip = IPAddress.fromBson(banDoc.get("ip"));
+                if (uuid != null) {
+                    PlayerBanInfo info = DatabaseBanApplication.toPlayerBanInfo(banDoc, uuid, banDoc.getString("name"));
+                    if (!info.expired()) fresh.put(info, ip);
+                } else if (ip != null) {
+                    IPBanInfo info = DatabaseBanApplication.toIPBanInfo(banDoc, ip.toString());
+                    if (!info.expired()) fresh.put(ip, info);
+                }
+            }
+        } catch (Exception e) {
+            synchronized (writeLock) {
+                journal = null;
+            }
+            MongoBanAPI.logger.error("Failed to load the ban index, keeping the previous entries: {}", e.getMessage());
+            return;
+        }
+
+        synchronized (writeLock) {
+            if (journal != null) for (Consumer<Entries> write : journal) write.accept(fresh);
+            journal = null;
+            entries = fresh;
+        }
+
+        if (!loaded)
+            MongoBanAPI.logger.info("Loaded {} player bans and {} IP bans into the ban index", fresh.players.size(), fresh.addresses.size());
+        loaded = true;
+    }
+
+    /**
+     * Loads the index again if it is enabled, see {@link #load()}.
+     */
+    synchronized void reload() {
+        if (enabled) load();
+    }
+
+    /**
+     * Disables the index and releases all entries.
+     */
+    public synchronized void unload() {
+        enabled = false;
+        loaded = false;
+        synchronized (writeLock) {
+            entries = new Entries();
+        }
+    }
+
+    /**
+     * Checks whether the index has been fully loaded and can be used to answer lookups.
+     *
+     * @return true if the index is loaded, false otherwise
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Checks whether a connection with the given player UUID or IP address may be banned.
+     * <p>
+     * Expired entries are dropped from the index and are not reported as hits.
+     *
+     * @param uuid the unique identifier of the player
+     * @param ip   the IP address of the player
+     * @return true if an active ban is indexed for the UUID or the IP address, false otherwise
+     */
+    public boolean mayBeBanned(@NotNull UUID uuid, @NotNull IPAddress ip) {
+        return findIP(ip) != null || findPlayer(uuid) != null;
+    }
+
+    /**
+     * Checks whether a connection with the given player UUID or IP address may be banned.
+     *
+     * @param uuid the unique identifier of the player
+     * @param ip   the IP address literal of the player
+     * @return true if an active ban is indexed for the UUID or the IP address, false otherwise
+     */
+    public boolean mayBeBanned(@NotNull UUID uuid, @NotNull String ip) {
+        return findIP(ip) != null || findPlayer(uuid) != null;
+    }
+
+    /**
+     * Retrieves the indexed ban of a player.
+     *
+     * @param uuid the unique identifier of the player
+     * @return the indexed {@link PlayerBanInfo}, or null if no active ban is indexed
+     */
+    public @Nullable PlayerBanInfo findPlayer(@NotNull UUID uuid) {
+        PlayerBanInfo info = entries.players.get(uuid);
+        if (info != null && info.expired()) {
+            removePlayer(uuid);
+            return null;
+        }
+        return info;
+    }
+
+    /**
+     * Retrieves the indexed ban of an IP address.
+     *
+     * @param ip the IP address
+     * @return the indexed {@link IPBanInfo}, or null if no active ban is indexed
+     */
+    public @Nullable IPBanInfo findIP(@NotNull IPAddress ip) {
+        IPBanInfo info = entries.addresses.get(ip);
+        if (info != null && info.expired()) {
+            write(current -> current.addresses.remove(ip));
+            return null;
+        }
+        return info;
+    }
+
+    /**
+     * Retrieves the indexed ban of an IP address.
+     *
+     * @param ip the IP address literal
+     * @return the indexed {@link IPBanInfo}, or null if no active ban is indexed
+     */
+    public @Nullable IPBanInfo findIP(@NotNull String ip) {
+        IPAddress address = IPAddress.parse(ip);
+        return address != null ? findIP(address) : null;
+    }
+
+    void put(@NotNull PlayerBanInfo info, @Nullable String ip) {
+        put(info, IPAddress.parse(ip));
+    }
+
+    private void put(@NotNull PlayerBanInfo info, @Nullable IPAddress ip) {
+        write(current -> current.put(info, ip));
+    }
+
+    void put(@NotNull IPBanInfo info) {
+        IPAddress ip = IPAddress.parse(info.ip());
+        if (ip != null) write(current -> current.put(ip, info));
+    }
+
+    void removePlayer(@NotNull UUID uuid) {
+        write(current -> current.removePlayer(uuid));
+    }
+
+    void removePlayer(@NotNull String name) {
+        write(current -> current.removePlayer(name));
+    }
+
+    void removeIP(@NotNull String text) {
+        IPAddress ip = IPAddress.parse(text);
+        if (ip != null) write(current -> current.removeIP(ip));
+    }
+
+    /**
+     * Applies a write to the current entries, and records it for a reload in progress.
+     */
+    private void write(Consumer<Entries> write) {
+        if (!enabled) return;
+        synchronized (writeLock) {
+            write.accept(entries);
+            if (journal != null) journal.add(write);
+        }
+    }
+
+    /**
+     * Re-reads the entries touched by a ban written on another server.
+     */
+    private void invalidated(@Nullable String key) {
+        if (!enabled || key == null) return;
+
+        String idPrefix = DatabaseCache.key(application.collection(), "id", "");
+        String ipPrefix = DatabaseCache.key(application.collection(), "ip", "");
+        if (key.startsWith(idPrefix)) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(key.substring(idPrefix.length()));
+            } catch (IllegalArgumentException e) {
+                return;
+            }
+            TBase.runAsync(() -> refreshPlayer(uuid));
+        } else if (key.startsWith(ipPrefix)) {
+            String ip = key.substring(ipPrefix.length());
+            TBase.runAsync(() -> refreshIP(ip));
+        }
+    }
+
+    private void refreshPlayer(UUID uuid) {
+        Document banDoc = application.database().queryOne(application.collection(), new Document("id", uuid), DatabaseBanApplication.CHECK_PROJECTION, Document.class);
+        removePlayer(uuid);
+        if (banDoc == null) return;
+        PlayerBanInfo info = DatabaseBanApplication.toPlayerBanInfo(banDoc, uuid, banDoc.getString("name"));
+        if (!info.expired()) put(info, IPAddress.fromBson(banDoc.get("ip")));
+    }
+
+    private void refreshIP(String ip) {
+        Document banDoc = application.database().queryOne(application.collection(), new Document("ip", IPAddress.toBson(ip)), DatabaseBanApplication.CHECK_PROJECTION, Document.class);
+        if (banDoc == null) {
+            removeIP(ip);
+            return;
+        }
+        IPBanInfo info = DatabaseBanApplication.toIPBanInfo(banDoc, ip);
+        if (!info.expired()) put(info);
+    }
+
+    private static class Entries {
+        private final Map<UUID, PlayerBanInfo> players = new ConcurrentHashMap<>();
+        private final Map<UUID, IPAddress> playerAddresses = new ConcurrentHashMap<>();
+        private final Map<IPAddress, IPBanInfo> addresses = new ConcurrentHashMap<>();
+
+        void put(PlayerBanInfo info, @Nullable IPAddress ip) {
+            if (info.uuid() != null) {
+                players.put(info.uuid(), info);
+                if (ip != null) playerAddresses.put(info.uuid(), ip);
+            }
+            // A player ban carrying an address is matched by IP lookups as well.
+            if (ip != null) addresses.putIfAbsent(ip, new IPBanInfo(ip.toString(), info.operator(), info.duration(), info.reason(), info.expiresAt()));
+        }
+
+        void put(IPAddress ip, IPBanInfo info) {
+            addresses.put(ip, info);
+        }
+
+        void removePlayer(UUID uuid) {
+            players.remove(uuid);
+            playerAddresses.remove(uuid);
+        }
+
+        void removePlayer(String name) {
+            players.values().removeIf(info -> {
+                if (!name.equalsIgnoreCase(info.name())) return false;
+                if (info.uuid() != null) playerAddresses.remove(info.uuid());
+                return true;
+            });
+        }
+
+        void removeIP(IPAddress ip) {
+            addresses.remove(ip);
+            playerAddresses.entrySet().removeIf(entry -> {
+                if (!entry.getValue().equals(ip)) return false;
+                players.remove(entry.getKey());
+                return true;
+            });
+        }
+    }
+}
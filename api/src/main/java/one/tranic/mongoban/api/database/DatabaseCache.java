@@ -0,0 +1,219 @@
+package one.tranic.mongoban.api.database;
+
+import one.tranic.mongoban.api.MongoBanAPI;
+import one.tranic.mongoban.api.cache.InvalidationListener;
+import one.tranic.mongoban.api.cache.InvalidationSource;
+import one.tranic.t.base.cache.Cache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A read-through, write-invalidate layer that puts the configured {@link Cache} in front of
+ * the {@code find} methods of the database applications.
+ * <p>
+ * Keys are namespaced per collection and per field, in the form
+ * {@code mongoban:<collection>:<field>:<value>}, so lookups by different fields never collide.
+ * <p>
+ * Lookups that found nothing can be remembered as absence markers under
+ * {@code mongoban:none:<collection>:<field>:<value>}, with their own, usually much shorter, time-to-live.
+ * Invalidating a key always evicts its absence marker as well.
+ * <p>
+ * Every key belongs to a generation that is advanced by each invalidation, on this server or announced by another one.
+ * A lookup takes a {@link #stamp} before it queries the database, and its result is only cached while the generation
+ * is unchanged, so a lookup racing with a write can never cache the state from before the write.
+ * <p>
+ * Cache failures are logged and treated as misses, they never fail a database operation.
+ */
+public class DatabaseCache {
+    private static final String PREFIX = "mongoban:";
+    private static final String ABSENT = "none:";
+    private static final String MARKER = "1";
+    private static final int STRIPES = 1024;
+
+    private final @Nullable Cache cache;
+    private final long ttl;
+    private final long negativeTtl;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    /**
+     * Constructs a new DatabaseCache.
+     *
+     * @param cache       the cache to read from and write to, or null to disable caching
+     * @param ttl         the time-to-live of cached entries, in seconds
+     * @param negativeTtl the time-to-live of absence markers in seconds, or 0 to disable negative caching
+     */
+    public DatabaseCache(@Nullable Cache cache, long ttl, long negativeTtl) {
+        this.cache = cache;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        addInvalidationListener(this::invalidated);
+    }
+
+    /**
+     * Builds the namespaced cache key for a lookup.
+     *
+     * @param collection the name of the MongoDB collection
+     * @param field      the field the lookup is performed on
+     * @param value      the value looked up
+     * @return the cache key
+     */
+    public static @NotNull String key(@NotNull String collection, @NotNull String field, @NotNull Object value) {
+        return PREFIX + entry(collection, field, value);
+    }
+
+    private static String absentKey(String collection, String field, Object value) {
+        return PREFIX + ABSENT + entry(collection, field, value);
+    }
+
+    private static String entry(String collection, String field, Object value) {
+        return collection + ":" + field + ":" + value;
+    }
+
+    private static int stripe(String entry) {
+        return Math.floorMod(entry.hashCode(), STRIPES);
+    }
+
+    /**
+     * Takes the current generation of a key, to be passed to {@link #put} or {@link #putAbsent}
+     * once the database has been queried.
+     *
+     * @param collection the name of the MongoDB collection
+     * @param field      the field the lookup is performed on
+     * @param value      the value looked up
+     * @return the generation of the key
+     */
+    public long stamp(@NotNull String collection, @NotNull String field, @Nullable Object value) {
+        if (cache == null || value == null) return 0;
+        return generations.get(stripe(entry(collection, field, value)));
+    }
+
+    /**
+     * Writes an entry unless the key was invalidated since the stamp was taken.
+     * <p>
+     * Invalidations advance the generation before they evict, so an invalidation racing with the write
+     * is either seen by the second check, or evicts the entry after it was written.
+     */
+    private void write(String entry, String key, Object result, long ttl, long stamp) {
+        int stripe = stripe(entry);
+        if (generations.get(stripe) != stamp) return;
+        cache.getService().put(key, result, ttl);
+        if (generations.get(stripe) != stamp) cache.getService().invalidate(key);
+    }
+
+    /**
+     * Advances the generation of the keys invalidated by another server.
+     */
+    private void invalidated(@Nullable String key) {
+        if (key == null) {
+            for (int i = 0; i < STRIPES; i++) generations.incrementAndGet(i);
+        } else if (key.startsWith(PREFIX)) {
+            String entry = key.substring(PREFIX.length());
+            if (entry.startsWith(ABSENT)) entry = entry.substring(ABSENT.length());
+            generations.incrementAndGet(stripe(entry));
+        }
+    }
+
+    /**
+     * Registers a listener for entries changed by other servers, if the cache is shared between servers.
+     *
+     * @param listener the listener to register
+     */
+    public void addInvalidationListener(@NotNull InvalidationListener listener) {
+        if (cache != null && cache.getService() instanceof InvalidationSource source)
+            source.addInvalidationListener(listener);
+    }
+
+    /**
+     * Retrieves a cached lookup result.
+     *
+     * @param collection the name of the MongoDB collection
+     * @param field      the field the lookup is performed on
+     * @param value      the value looked up
+     * @param type       the type of the cached result
+     * @param <T>        the type of the cached result
+     * @return the cached result, or null on a miss
+     */
+    public <T> @Nullable T get(@NotNull String collection, @NotNull String field, @Nullable Object value, @NotNull Class<T> type) {
+        if (cache == null || value == null) return null;
+        try {
+            return cache.getService().get(key(collection, field, value), type).orElse(null);
+        } catch (Exception e) {
+            MongoBanAPI.logger.warn("Failed to read from the cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Caches a lookup result, unless the key was invalidated since the lookup started.
+     *
+     * @param collection the name of the MongoDB collection
+     * @param field      the field the lookup is performed on
+     * @param value      the value looked up
+     * @param result     the result to cache
+     * @param stamp      the {@link #stamp} taken before the database was queried
+     */
+    public void put(@NotNull String collection, @NotNull String field, @Nullable Object value, @NotNull Object result, long stamp) {
+        if (cache == null || value == null) return;
+        try {
+            write(entry(collection, field, value), key(collection, field, value), result, ttl, stamp);
+        } catch (Exception e) {
+            MongoBanAPI.logger.warn("Failed to write to the cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a lookup is remembered to have found nothing.
+     *
+     * @param collection the name of the MongoDB collection
+     * @param field      the field the lookup is performed on
+     * @param value      the value looked up
+     * @return true if a live absence marker exists for the lookup, false otherwise
+     */
+    public boolean isAbsent(@NotNull String collection, @NotNull String field, @Nullable Object value) {
+        if (cache == null || value == null || negativeTtl < 1) return false;
+        try {
+            return !cache.getService().get(absentKey(collection, field, value)).isEmpty();
+        } catch (Exception e) {
+            MongoBanAPI.logger.warn("Failed to read from the cache: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Remembers that a lookup found nothing, for the negative time-to-live,
+     * unless the key was invalidated since the lookup started.
+     *
+     * @param collection the name of the MongoDB collection
+     * @param field      the field the lookup is performed on
+     * @param value      the value looked up
+     * @param stamp      the {@link #stamp} taken before the database was queried
+     */
+    public void putAbsent(@NotNull String collection, @NotNull String field, @Nullable Object value, long stamp) {
+        if (cache == null || value == null || negativeTtl < 1) return;
+        try {
+            write(entry(collection, field, value), absentKey(collection, field, value), MARKER, negativeTtl, stamp);
+        } catch (Exception e) {
+            MongoBanAPI.logger.warn("Failed to write to the cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts a cached lookup result together with its absence marker.
+     *
+     * @param collection the name of the MongoDB collection
+     * @param field      the field the lookup is performed on
+     * @param value      the value looked up
+     */
+    public void invalidate(@NotNull String collection, @NotNull String field, @Nullable Object value) {
+        if (cache == null || value == null) return;
+        generations.incrementAndGet(stripe(entry(collection, field, value)));
+        try {
+            cache.getService().invalidate(key(collection, field, value));
+            if (negativeTtl > 0) cache.getService().invalidate(absentKey(collection, field, value));
+        } catch (Exception e) {
+            MongoBanAPI.logger.warn("Failed to invalidate the cache: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package one.tranic.mongoban.api.database;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import one.tranic.mongoban.api.MongoBanAPI;
+import one.tranic.t.base.TBase;
+import one.tranic.t.utils.Collections;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Declares the indexes backing every query of the database applications and builds the missing ones.
+ * <p>
+ * Indexes are built in the background, so startup never waits for them;
+ * until an index is ready the queries relying on it fall back to collection scans.
+ * <p>
+ * The state of each declared index is kept and can be queried with {@link #states()}.
+ */
+public class DatabaseIndexes {
+    private final Database database;
+    private final List<Definition> definitions;
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    public DatabaseIndexes(Database database) {
+        this.database = database;
+        this.definitions = definitions(database.ban().collection(), database.player().collection(), database.warn().collection());
+    }
+
+    /**
+     * Declares the indexes of the ban, player and warn collections.
+     *
+     * @param ban    the name of the ban collection
+     * @param player the name of the player collection
+     * @param warn   the name of the warn collection
+     * @return the index definitions
+     */
+    static List<Definition> definitions(String ban, String player, String warn) {
+        return List.of(
+                // Login checks, lookups and removals by player, case-insensitive name, address and range.
+                new Definition(ban, Indexes.ascending("id"), new IndexOptions().name("id").sparse(true)),
+                new Definition(ban, Indexes.ascending("ip"), new IndexOptions().name("ip").sparse(true)),
+                new Definition(ban, Indexes.ascending("nameLower"), new IndexOptions().name("nameLower").sparse(true)),
+                new Definition(ban, Indexes.ascending("range"), new IndexOptions().name("range").sparse(true)),
+                new Definition(ban, Indexes.ascending("expiresAt"), new IndexOptions().name("expiresAt_ttl").expireAfter(0L, TimeUnit.SECONDS)),
+                // Player records are upserted by id at every login; ip holds the address history and is multikey.
+                new Definition(player, Indexes.ascending("id"), new IndexOptions().name("id")),
+                new Definition(player, Indexes.ascending("nameLower"), new IndexOptions().name("nameLower")),
+                new Definition(player, Indexes.ascending("ip"), new IndexOptions().name("ip")),
+                // Warnings are looked up by their own id and listed per player.
+                new Definition(warn, Indexes.ascending("id"), new IndexOptions().name("id")),
+                new Definition(warn, Indexes.ascending("playerId"), new IndexOptions().name("playerId"))
+        );
+    }
+
+    /**
+     * Builds every declared index that does not exist yet, without blocking the caller.
+     *
+     * @return a {@link CompletableFuture} completing once every missing index has been built or has failed
+     */
+    public CompletableFuture<Void> ensure() {
+        return CompletableFuture.runAsync(this::build, TBase.executor);
+    }
+
+    /**
+     * Retrieves the state of every declared index, keyed by {@code <collection>.<index name>}.
+     *
+     * @return an unmodifiable snapshot of the index states
+     */
+    public Map<String, State> states() {
+        return Map.copyOf(states);
+    }
+
+    /**
+     * Checks whether every declared index exists.
+     *
+     * @return true if all indexes are ready, false while some are missing, building or failed
+     */
+    public boolean isReady() {
+        for (Definition definition : definitions) {
+            State state = states.get(definition.key());
+            if (state != State.PRESENT && state != State.BUILT) return false;
+        }
+        return true;
+    }
+
+    private void build() {
+        Map<String, Set<String>> existing = Collections.newHashMap();
+        for (Definition definition : definitions) {
+            Set<String> names = existing.computeIfAbsent(definition.collection(), this::indexNames);
+            states.put(definition.key(), names.contains(definition.options().getName()) ? State.PRESENT : State.MISSING);
+        }
+
+        int built = 0;
+        int failed = 0;
+        for (Definition definition : definitions) {
+            if (states.get(definition.key()) == State.PRESENT) continue;
+
+            states.put(definition.key(), State.BUILDING);
+            MongoBanAPI.logger.info("Building index {}", definition.key());
+            if (database.createIndex(definition.collection(), definition.keys(), definition.options())) {
+                states.put(definition.key(), State.BUILT);
+                built++;
+            } else {
+                states.put(definition.key(), State.FAILED);
+                failed++;
+            }
+        }
+
+        if (failed > 0) MongoBanAPI.logger.warn("{} of {} indexes could not be built, affected lookups fall back to collection scans", failed, definitions.size());
+        else MongoBanAPI.logger.info("All {} indexes are ready ({} built)", definitions.size(), built);
+    }
+
+    private Set<String> indexNames(String collection) {
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        try {
+            for (Document index : database.getCollection(collection).listIndexes()) names.add(index.getString("name"));
+        } catch (Exception e) {
+            MongoBanAPI.logger.warn("Failed to list the indexes of {}: {}", collection, e.getMessage());
+        }
+        return names;
+    }
+
+    /**
+     * The state of a declared index.
+     */
+    public enum State {
+        /**
+         * The index has not been checked or is not built yet.
+         */
+        MISSING,
+        /**
+         * The index already existed at startup.
+         */
+        PRESENT,
+        /**
+         * The index is being built.
+         */
+        BUILDING,
+        /**
+         * The index was built by this server.
+         */
+        BUILT,
+        /**
+         * Building the index failed, see the server log for the cause.
+         */
+        FAILED
+    }
+
+    record Definition(String collection, Bson keys, IndexOptions options) {
+        @NotNull String key() {
+            return collection + "." + options.getName();
+        }
+    }
+}
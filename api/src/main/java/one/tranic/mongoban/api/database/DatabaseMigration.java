@@ -0,0 +1,143 @@
+package one.tranic.mongoban.api.database;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import one.tranic.mongoban.api.MongoBanAPI;
+import one.tranic.mongoban.api.data.IPAddress;
+import one.tranic.t.base.TBase;
+import one.tranic.t.utils.Collections;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Upgrades documents written by earlier versions to the current storage format.
+ * <p>
+ * Every step selects only the documents still in the old format, so running the migration again is cheap and harmless.
+ */
+public class DatabaseMigration {
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Selects the documents that carry a name but no normalized {@code nameLower} yet.
+     */
+    static final Bson UNNORMALIZED_NAMES = Filters.and(Filters.type("name", BsonType.STRING), Filters.exists("nameLower", false));
+
+    /**
+     * Fills {@code nameLower} from {@code name} server-side. For the ASCII names Minecraft allows,
+     * {@code $toLower} yields the same form as {@link DatabasePlayerApplication#normalizeName(String)}.
+     */
+    static final List<Bson> NORMALIZE_NAMES = List.of(Updates.set("nameLower", new Document("$toLower", "$name")));
+
+    private final Database database;
+
+    public DatabaseMigration(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Runs every migration step without blocking the caller.
+     * <p>
+     * Until it completes, lookups may still meet documents in the old format; they are read as before.
+     *
+     * @return a {@link CompletableFuture} completing once every step has run or has failed
+     */
+    public CompletableFuture<Void> migrate() {
+        return CompletableFuture.runAsync(this::run, TBase.executor);
+    }
+
+    private void run() {
+        int bans = rewrite(database.ban().collection(), Filters.type("ip", BsonType.STRING), "ip",
+                doc -> set("ip", binaryIP(doc.get("ip"))));
+        int players = rewrite(database.player().collection(), Filters.type("ip", BsonType.STRING), "ip",
+                doc -> set("ip", binaryIPs(doc.get("ip"))));
+        if (bans > 0 || players > 0)
+            MongoBanAPI.logger.info("Converted the IP addresses of {} bans and {} players to binary", bans, players);
+
+        // Bans written before expiresAt existed keep no timestamp: their start is unknown, so a relative duration
+        // cannot be turned into one. Their expiry is read from the duration, see DatabaseBanApplication#expiresAt.
+
+        long banNames = lowerNames(database.ban().collection());
+        long playerNames = lowerNames(database.player().collection());
+        if (banNames > 0 || playerNames > 0)
+            MongoBanAPI.logger.info("Added normalized names to {} bans and {} players", banNames, playerNames);
+    }
+
+    /**
+     * Fills {@code nameLower} from {@code name} server-side, in a single pipeline update per collection.
+     *
+     * @param collection the name of the collection to migrate
+     * @return the number of updated documents
+     */
+    private long lowerNames(String collection) {
+        try {
+            return database.getCollection(collection).updateMany(UNNORMALIZED_NAMES, NORMALIZE_NAMES).getModifiedCount();
+        } catch (Exception e) {
+            MongoBanAPI.logger.error("Failed to migrate {}: {}", collection, e.getMessage());
+            return 0;
+        }
+    }
+
+    private static @Nullable Bson set(String field, @Nullable Object value) {
+        return value != null ? Updates.set(field, value) : null;
+    }
+
+    /**
+     * Applies an update to every document still matching a legacy filter, in unordered batches.
+     *
+     * @param collection the name of the collection to migrate
+     * @param legacy     the filter selecting documents still in the old format
+     * @param field      the only field the update needs to read
+     * @param update     builds the update of a document, or returns null to leave it untouched
+     * @return the number of rewritten documents
+     */
+    private int rewrite(String collection, Bson legacy, String field, Function<Document, Bson> update) {
+        int converted = 0;
+        List<WriteModel<Document>> models = Collections.newArrayList(BATCH_SIZE);
+
+        try (MongoCursor<Document> cursor = database.getCollection(collection)
+                .find(legacy)
+                .projection(Projections.include(field))
+                .batchSize(BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document doc = cursor.next();
+                Bson value = update.apply(doc);
+                if (value == null) continue;
+                models.add(new UpdateOneModel<>(Filters.eq("_id", doc.get("_id")), value));
+                if (models.size() >= BATCH_SIZE) {
+                    if (database.bulkWrite(collection, models)) converted += models.size();
+                    models.clear();
+                }
+            }
+        } catch (Exception e) {
+            MongoBanAPI.logger.error("Failed to migrate {}: {}", collection, e.getMessage());
+        }
+        if (database.bulkWrite(collection, models)) converted += models.size();
+        return converted;
+    }
+
+    private static Object binaryIP(Object value) {
+        IPAddress address = IPAddress.fromBson(value);
+        return address != null ? address.toBinary() : null;
+    }
+
+    private static Object binaryIPs(Object value) {
+        if (!(value instanceof List<?> values)) return binaryIP(value);
+        List<Object> converted = Collections.newArrayList(values.size());
+        for (Object ip : values) {
+            IPAddress address = IPAddress.fromBson(ip);
+            if (address != null && !converted.contains(address.toBinary())) converted.add(address.toBinary());
+        }
+        return converted;
+    }
+}
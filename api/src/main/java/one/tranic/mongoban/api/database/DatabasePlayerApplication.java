@@ -1,18 +1,40 @@
 package one.tranic.mongoban.api.database;
 
 import com.mongodb.client.model.Filters;
+import one.tranic.mongoban.api.data.IPAddress;
 import one.tranic.mongoban.api.data.PlayerInfo;
+import one.tranic.mongoban.api.database.codec.PlayerInfoCodec;
 import one.tranic.t.base.task.Actions;
-import one.tranic.t.utils.Collections;
 import org.bson.Document;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 public class DatabasePlayerApplication {
     private final Database database;
     private final DatabaseService service;
     private final String collection = "mongo_player";
+    private volatile DatabasePlayerWriter writer;
+
+    /**
+     * The maximum number of IP addresses kept in a player's IP history.
+     */
+    public static final int MAX_IPS = 6;
+
+    /**
+     * Normalizes a player name for case-insensitive lookups.
+     * <p>
+     * Every document carrying a {@code name} also stores this form in {@code nameLower},
+     * which is indexed, so name lookups match exactly on it instead of scanning with a case-insensitive regex.
+     *
+     * @param name the player name
+     * @return the name in lower case, or null if the name is null
+     */
+    public static @Nullable String normalizeName(@Nullable String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
 
     /**
      * Constructs an instance of the DatabasePlayerApplication.
@@ -30,8 +52,11 @@ public class DatabasePlayerApplication {
      * <p>
      * If the player does not already exist, a new entry is created.
      * <p>
-     * If they exist, their IP list is updated,
-     * ensuring it maintains a maximum size of 6 by removing the oldest entry if necessary.
+     * If they exist, the IP address is moved to the end of their IP list,
+     * ensuring it maintains a maximum size of {@value #MAX_IPS} by dropping the oldest entries if necessary.
+     * <p>
+     * The IP list is deduplicated, appended and trimmed server-side in a single upsert,
+     * so concurrent logins from several servers cannot lose addresses.
      *
      * @param name the name of the player to add or update
      * @param uuid the unique identifier (UUID) of the player
@@ -39,33 +64,88 @@ public class DatabasePlayerApplication {
      * @return an {@code Actions<Void>} instance encapsulating this operation
      */
     public Actions<Void> add(String name, UUID uuid, String ip) {
+        String address = IPAddress.canonical(ip);
         return new Actions<>(() -> {
-            Document query = new Document("id", uuid);
-            Document playerDoc = database.queryOne(this.collection, query);
-            Document updateDoc;
-            if (playerDoc == null) {
-                updateDoc = new Document("id", uuid)
-                        .append("name", name)
-                        .append("ip", Collections.newArrayList(ip));
-
-                database.insert(this.collection, updateDoc);
-            } else {
-                List<String> ips = playerDoc.getList("ip", String.class);
-                if (ips.size() >= 6) ips.removeFirst();
-                if (!ips.isEmpty()) ips.remove(ip);
-                ips.add(ip);
-                updateDoc = new Document()
-                        .append("name", name)
-                        .append("ip", ips);
-            }
-            database.update(this.collection, query, updateDoc);
+            database.upsert(this.collection, Filters.eq("id", uuid), playerUpdate(name, List.of(address)));
+            invalidate(uuid, name);
 
             return null;
         });
     }
 
     /**
-     * Retrieves player information from the database by the player's name.
+     * Records a login of a player.
+     * <p>
+     * If a {@link DatabasePlayerWriter} is installed, the update is queued and written behind in batches;
+     * otherwise it is written asynchronously through {@link #add(String, UUID, String)}.
+     *
+     * @param name the name of the player
+     * @param uuid the unique identifier (UUID) of the player
+     * @param ip   the IP address the player logged in from
+     */
+    public void record(String name, UUID uuid, String ip) {
+        String address = IPAddress.canonical(ip);
+        DatabasePlayerWriter writer = this.writer;
+        if (writer != null) writer.enqueue(name, uuid, address);
+        else add(name, uuid, address).async();
+    }
+
+    /**
+     * Installs the write-behind stage used by {@link #record(String, UUID, String)}.
+     * <p>
+     * A previously installed writer is closed, flushing its pending updates.
+     *
+     * @param writer the new writer, or null to write every login directly
+     */
+    public synchronized void setWriter(@Nullable DatabasePlayerWriter writer) {
+        DatabasePlayerWriter previous = this.writer;
+        this.writer = writer;
+        if (previous != null) previous.close();
+    }
+
+    /**
+     * Flushes and closes the installed write-behind stage, if any.
+     */
+    public void close() {
+        setWriter(null);
+    }
+
+    Database database() {
+        return this.database;
+    }
+
+    void invalidate(UUID uuid, String name) {
+        database.cache().invalidate(collection, "id", uuid);
+        database.cache().invalidate(collection, "name", normalizeName(name));
+    }
+
+    String collection() {
+        return this.collection;
+    }
+
+    /**
+     * Builds the pipeline that records logins of a player:
+     * the name is overwritten and the IP addresses are appended to the IP history in order,
+     * after removing any earlier occurrence and keeping only the latest {@value #MAX_IPS} entries.
+     * <p>
+     * Addresses are written in their binary form, and the normalized name is written to {@code nameLower}.
+     */
+    static List<Document> playerUpdate(String name, List<String> ip) {
+        Document addresses = new Document("$literal", ip.stream().map(IPAddress::toBson).toList());
+        Document history = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$ip", List.of())))
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this", addresses))))));
+        Document ips = new Document("$slice", List.of(
+                new Document("$concatArrays", List.of(history, addresses)),
+                -MAX_IPS
+        ));
+
+        return List.of(new Document("$set", new Document("name", new Document("$literal", name))
+                .append("nameLower", new Document("$literal", normalizeName(name)))
+                .append("ip", ips)));
+    }
+
+    /**
+     * Retrieves player information from the database by the player's name, ignoring case.
      *
      * @param name The name of the player to search for in the database.
      * @return An {@code Actions<PlayerInfo>} containing a task that, when executed,
@@ -73,15 +153,17 @@ public class DatabasePlayerApplication {
      * or {@code null} if no player with the specified name is found.
      */
     public Actions<PlayerInfo> find(String name) {
-        return new Actions<>(() -> {
-            Document query = new Document("name", name);
-            Document playerDoc = database.queryOne(this.collection, query);
-            return playerDoc != null ? new PlayerInfo(
-                    name,
-                    playerDoc.get("id", UUID.class),
-                    playerDoc.getList("ip", String.class)
-            ) : null;
-        });
+        String nameLower = normalizeName(name);
+        return new Actions<>(() -> database.lookups().run(DatabaseCache.key(collection, "name", nameLower), () -> {
+            PlayerInfo cached = database.cache().get(collection, "name", nameLower, PlayerInfo.class);
+            if (cached != null) return cached;
+
+            long stamp = database.cache().stamp(collection, "name", nameLower);
+            PlayerInfo info = database.queryOne(this.collection, Filters.eq("nameLower", nameLower), PlayerInfoCodec.FIELDS, PlayerInfo.class);
+            if (info == null) return null;
+            database.cache().put(collection, "name", nameLower, info, stamp);
+            return info;
+        }));
     }
 
     /**
@@ -93,18 +175,10 @@ public class DatabasePlayerApplication {
      * or an empty list if no players with the specified IP address are found.
      */
     public Actions<List<PlayerInfo>> finds(String ip) {
-        return new Actions<>(() -> {
-            List<PlayerInfo> players = Collections.newArrayList();
-            List<Document> playerDocs = database.queryMany(this.collection, Filters.elemMatch("ip", Filters.eq(ip)));
-            for (Document playerDoc : playerDocs) {
-                players.add(new PlayerInfo(
-                        playerDoc.getString("name"),
-                        playerDoc.get("id", UUID.class),
-                        playerDoc.getList("ip", String.class)
-                ));
-            }
-            return players;
-        });
+        String address = IPAddress.canonical(ip);
+        return new Actions<>(() -> database.lookups().run(DatabaseCache.key(collection, "ip", address), () -> {
+            return database.queryMany(this.collection, Filters.elemMatch("ip", Filters.eq(IPAddress.toBson(address))), PlayerInfoCodec.FIELDS, PlayerInfo.class);
+        }));
     }
 
     /**
@@ -118,14 +192,15 @@ public class DatabasePlayerApplication {
      * with the given UUID.
      */
     public Actions<PlayerInfo> find(UUID uuid) {
-        return new Actions<>(() -> {
-            Document query = new Document("id", uuid);
-            Document playerDoc = database.queryOne(this.collection, query);
-            return playerDoc != null ? new PlayerInfo(
-                    playerDoc.getString("name"),
-                    uuid,
-                    playerDoc.getList("ip", String.class)
-            ) : null;
-        });
+        return new Actions<>(() -> database.lookups().run(DatabaseCache.key(collection, "id", uuid), () -> {
+            PlayerInfo cached = database.cache().get(collection, "id", uuid, PlayerInfo.class);
+            if (cached != null) return cached;
+
+            long stamp = database.cache().stamp(collection, "id", uuid);
+            PlayerInfo info = database.queryOne(this.collection, Filters.eq("id", uuid), PlayerInfoCodec.FIELDS, PlayerInfo.class);
+            if (info == null) return null;
+            database.cache().put(collection, "id", uuid, info, stamp);
+            return info;
+        }));
     }
 }
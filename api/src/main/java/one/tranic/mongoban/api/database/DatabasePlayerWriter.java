@@ -0,0 +1,272 @@
+package one.tranic.mongoban.api.database;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import one.tranic.mongoban.api.MongoBanAPI;
+import one.tranic.t.utils.Collections;
+import org.bson.Document;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A write-behind stage in front of {@link DatabasePlayerApplication} for login-time player records.
+ * <p>
+ * Updates are coalesced per player UUID and flushed as a single unordered {@code bulkWrite},
+ * either every {@code interval} milliseconds or as soon as {@code batchSize} players are pending.
+ * <p>
+ * The number of pending players is bounded by {@code capacity}; what happens beyond it is decided
+ * by the configured {@link OverflowPolicy}. No policy blocks the thread queueing the login.
+ * <p>
+ * A batch whose bulk write fails is queued again and retried with the next flush.
+ */
+public class DatabasePlayerWriter {
+    private final DatabasePlayerApplication application;
+    private final int batchSize;
+    private final int capacity;
+    private final OverflowPolicy overflow;
+
+    private final LinkedHashMap<UUID, Pending> pending = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Object flushLock = new Object();
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs a new DatabasePlayerWriter and starts its periodic flush.
+     *
+     * @param application the player application whose collection receives the writes
+     * @param interval    the flush interval in milliseconds
+     * @param batchSize   the number of pending players that triggers an early flush
+     * @param capacity    the maximum number of pending players
+     * @param overflow    the policy applied when the capacity is reached
+     */
+    public DatabasePlayerWriter(@NotNull DatabasePlayerApplication application, long interval, int batchSize, int capacity, @NotNull OverflowPolicy overflow) {
+        if (interval < 1) throw new IllegalArgumentException("Flush interval must be positive");
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive");
+        if (capacity < batchSize) throw new IllegalArgumentException("Capacity must not be smaller than the batch size");
+
+        this.application = application;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.overflow = overflow;
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("MongoBan-PlayerWriter").build());
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.scheduler = executor;
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a login of a player to be written with the next flush.
+     * <p>
+     * Repeated logins of the same player before a flush are merged into a single update.
+     * This method never blocks on the database, whatever the overflow policy.
+     *
+     * @param name the name of the player
+     * @param uuid the unique identifier (UUID) of the player
+     * @param ip   the IP address the player logged in from
+     */
+    public void enqueue(@NotNull String name, @NotNull UUID uuid, @NotNull String ip) {
+        if (closed) {
+            application.add(name, uuid, ip).async();
+            return;
+        }
+
+        Pending update = new Pending(name, List.of(ip));
+        int size = offer(uuid, update);
+        if (size < 0) {
+            switch (overflow) {
+                case DROP -> MongoBanAPI.logger.warn("Player write queue is full, dropping the login of {}", uuid);
+                case CALLER_RUNS -> application.add(name, uuid, ip).async();
+                case FLUSH -> {
+                    try {
+                        scheduler.execute(() -> {
+                            flushQuietly();
+                            synchronized (pending) {
+                                pending.merge(uuid, update, Pending::merge);
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        application.add(name, uuid, ip).async();
+                    }
+                }
+            }
+            return;
+        }
+        if (size < batchSize) return;
+        try {
+            scheduler.execute(this::flushQuietly);
+        } catch (RejectedExecutionException ignored) {
+            // Closing flushes whatever is still pending.
+        }
+    }
+
+    /**
+     * Queues an update, making room first under {@link OverflowPolicy#DROP_OLDEST}.
+     *
+     * @return the number of pending players, or -1 if the queue is full and the overflow policy has to decide
+     */
+    private int offer(UUID uuid, Pending update) {
+        synchronized (pending) {
+            if (pending.size() >= capacity && !pending.containsKey(uuid)) {
+                if (overflow != OverflowPolicy.DROP_OLDEST) return -1;
+                dropOldest();
+            }
+            pending.merge(uuid, update, Pending::merge);
+            return pending.size();
+        }
+    }
+
+    private void dropOldest() {
+        Iterator<UUID> oldest = pending.keySet().iterator();
+        MongoBanAPI.logger.warn("Player write queue is full, dropping the login of {}", oldest.next());
+        oldest.remove();
+    }
+
+    /**
+     * Writes all pending player updates to the database.
+     * <p>
+     * Updates are sent in chunks of at most {@code batchSize} operations, each as one unordered bulk write.
+     * If a chunk fails it is queued again, and the remaining updates wait for the next flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            while (true) {
+                Map<UUID, Pending> batch = Collections.newHashMap();
+                synchronized (pending) {
+                    Iterator<Map.Entry<UUID, Pending>> iterator = pending.entrySet().iterator();
+                    while (iterator.hasNext() && batch.size() < batchSize) {
+                        Map.Entry<UUID, Pending> entry = iterator.next();
+                        batch.put(entry.getKey(), entry.getValue());
+                        iterator.remove();
+                    }
+                }
+                if (batch.isEmpty()) return;
+
+                List<WriteModel<Document>> models = Collections.newArrayList(batch.size());
+                for (Map.Entry<UUID, Pending> update : batch.entrySet())
+                    models.add(new UpdateOneModel<>(
+                            Filters.eq("id", update.getKey()),
+                            DatabasePlayerApplication.playerUpdate(update.getValue().name(), update.getValue().ips()),
+                            new UpdateOptions().upsert(true)
+                    ));
+                if (!application.database().bulkWrite(application.collection(), models)) {
+                    requeue(batch);
+                    return;
+                }
+                for (Map.Entry<UUID, Pending> written : batch.entrySet())
+                    application.invalidate(written.getKey(), written.getValue().name());
+            }
+        }
+    }
+
+    /**
+     * Queues the updates of a failed bulk write again, behind the logins queued since.
+     * <p>
+     * The updates are idempotent upserts, so retrying a partially applied batch is harmless.
+     */
+    private void requeue(Map<UUID, Pending> batch) {
+        synchronized (pending) {
+            for (Map.Entry<UUID, Pending> failed : batch.entrySet())
+                pending.merge(failed.getKey(), failed.getValue(), (newer, older) -> older.merge(newer));
+            while (pending.size() > capacity) dropOldest();
+        }
+        MongoBanAPI.logger.warn("Failed to write {} player records, retrying with the next flush", batch.size());
+    }
+
+    /**
+     * Stops the periodic flush and writes every pending update.
+     * <p>
+     * Logins queued after closing are written on their own, asynchronously.
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+
+        int lost;
+        synchronized (pending) {
+            lost = pending.size();
+            pending.clear();
+        }
+        if (lost > 0) MongoBanAPI.logger.error("Failed to write {} player records before shutting down", lost);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            MongoBanAPI.logger.error("Failed to flush player writes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Defines what happens to a login when the write queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The longest pending login is discarded to make room; the calling thread never blocks.
+         */
+        DROP_OLDEST,
+        /**
+         * The login is not recorded.
+         */
+        DROP,
+        /**
+         * The login is written on its own, outside the queue, without waiting for the write.
+         */
+        CALLER_RUNS,
+        /**
+         * The writer's flush thread flushes the queue and then queues the login.
+         */
+        FLUSH;
+
+        /**
+         * Parses a policy from its configuration name, such as {@code drop-oldest}.
+         *
+         * @param name the configuration name of the policy
+         * @return the matching policy, or {@link #DROP_OLDEST} if the name is blank or unknown
+         */
+        public static OverflowPolicy of(String name) {
+            if (name == null || name.isBlank()) return DROP_OLDEST;
+            try {
+                return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return DROP_OLDEST;
+            }
+        }
+    }
+
+    private record Pending(String name, List<String> ips) {
+        Pending merge(Pending next) {
+            List<String> merged = new ArrayList<>(ips);
+            for (String ip : next.ips()) {
+                merged.remove(ip);
+                merged.add(ip);
+            }
+            if (merged.size() > DatabasePlayerApplication.MAX_IPS)
+                merged = merged.subList(merged.size() - DatabasePlayerApplication.MAX_IPS, merged.size());
+            return new Pending(next.name(), List.copyOf(merged));
+        }
+    }
+}
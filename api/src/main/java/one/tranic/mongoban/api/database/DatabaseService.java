@@ -18,8 +18,8 @@ package one.tranic.mongoban.api.database;
  * <p>
  * - DatabaseWarnApplication: For managing warning system interactions.
  * <p>
- * Indexes were initially considered for collections, but they are currently commented out due to
- * performance concerns identified in some deployments.
+ * The indexes backing the queries of these applications are declared and built in the background
+ * by {@link DatabaseIndexes}, see {@link Database#indexes()}.
  */
 public class DatabaseService {
     private final DatabasePlayerApplication playerApplication;
@@ -63,4 +63,12 @@ public class DatabaseService {
     public DatabaseWarnApplication getWarnApplication() {
         return warnApplication;
     }
+
+    /**
+     * Flushes pending writes of the applications before the database connection is closed.
+     */
+    public void close() {
+        banApplication.close();
+        playerApplication.close();
+    }
 }
@@ -1,9 +1,11 @@
 package one.tranic.mongoban.api.database;
 
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import one.tranic.mongoban.api.data.PlayerWarnInfo;
+import one.tranic.mongoban.api.database.codec.PlayerWarnInfoCodec;
 import one.tranic.t.base.command.Operator;
 import one.tranic.t.base.task.Actions;
-import one.tranic.t.utils.Collections;
 import one.tranic.t.utils.Rand;
 import org.bson.Document;
 import org.jetbrains.annotations.NotNull;
@@ -22,6 +24,10 @@ public class DatabaseWarnApplication {
         this.service = service;
     }
 
+    String collection() {
+        return this.collection;
+    }
+
     /**
      * Adds a warning to the database for a specified player with the given details.
      *
@@ -33,14 +39,16 @@ public class DatabaseWarnApplication {
      */
     public Actions<Void> add(@NotNull UUID playerId, @NotNull Operator operator, @Nullable String duration, @Nullable String reason) {
         return new Actions<>(() -> {
-            String warnId = Rand.generateRandomId(21);
-            Document warnDoc = new Document("id", warnId)
-                    .append("playerId", playerId)
-                    .append("operator", operator)
-                    .append("duration", duration != null ? duration : "forever")
-                    .append("reason", reason != null ? reason : "<No reason provided>");
+            PlayerWarnInfo info = new PlayerWarnInfo(
+                    playerId,
+                    operator,
+                    Rand.generateRandomId(21),
+                    duration != null ? duration : "forever",
+                    reason != null ? reason : "<No reason provided>"
+            );
 
-            database.insert(this.collection, warnDoc);
+            database.insert(this.collection, info, PlayerWarnInfo.class);
+            database.cache().invalidate(collection, "playerId", playerId);
 
             return null;
         });
@@ -56,15 +64,14 @@ public class DatabaseWarnApplication {
      */
     public Actions<PlayerWarnInfo> find(String warnId) {
         return new Actions<>(() -> {
-            Document query = new Document("id", warnId);
-            Document warnDoc = database.queryOne(this.collection, query);
-            return warnDoc != null ? new PlayerWarnInfo(
-                    warnDoc.get("playerId", UUID.class),
-                    warnDoc.get("operator", Operator.class),
-                    warnDoc.getString("id"),
-                    warnDoc.getString("duration"),
-                    warnDoc.getString("reason")
-            ) : null;
+            PlayerWarnInfo cached = database.cache().get(collection, "id", warnId, PlayerWarnInfo.class);
+            if (cached != null) return cached;
+
+            long stamp = database.cache().stamp(collection, "id", warnId);
+            PlayerWarnInfo info = database.queryOne(this.collection, Filters.eq("id", warnId), PlayerWarnInfoCodec.FIELDS, PlayerWarnInfo.class);
+            if (info == null) return null;
+            database.cache().put(collection, "id", warnId, info, stamp);
+            return info;
         });
     }
 
@@ -80,19 +87,14 @@ public class DatabaseWarnApplication {
      */
     public Actions<PlayerWarnInfo[]> finds(UUID playerId) {
         return new Actions<>(() -> {
-            Document query = new Document("playerId", playerId);
-            List<Document> warnDocs = database.queryMany(this.collection, query);
-            List<PlayerWarnInfo> warnings = Collections.newArrayList();
-            for (Document warnDoc : warnDocs) {
-                warnings.add(new PlayerWarnInfo(
-                        playerId,
-                        warnDoc.get("operator", Operator.class),
-                        warnDoc.getString("id"),
-                        warnDoc.getString("duration"),
-                        warnDoc.getString("reason")
-                ));
-            }
-            return warnings.toArray(new PlayerWarnInfo[0]);
+            PlayerWarnInfo[] cached = database.cache().get(collection, "playerId", playerId, PlayerWarnInfo[].class);
+            if (cached != null) return cached;
+
+            long stamp = database.cache().stamp(collection, "playerId", playerId);
+            List<PlayerWarnInfo> warnings = database.queryMany(this.collection, Filters.eq("playerId", playerId), PlayerWarnInfoCodec.FIELDS, PlayerWarnInfo.class);
+            PlayerWarnInfo[] result = warnings.toArray(new PlayerWarnInfo[0]);
+            database.cache().put(collection, "playerId", playerId, result, stamp);
+            return result;
         });
     }
 
@@ -104,7 +106,9 @@ public class DatabaseWarnApplication {
      */
     public Actions<Void> remove(String warnId) {
         return new Actions<>(() -> {
-            database.delete(this.collection, "id", warnId);
+            Document warnDoc = database.findAndDelete(this.collection, Filters.eq("id", warnId), Projections.include("playerId"));
+            database.cache().invalidate(collection, "id", warnId);
+            if (warnDoc != null) database.cache().invalidate(collection, "playerId", warnDoc.get("playerId", UUID.class));
 
             return null;
         });
@@ -118,7 +122,10 @@ public class DatabaseWarnApplication {
      */
     public Actions<Void> remove(UUID playerId) {
         return new Actions<>(() -> {
+            List<Document> warnDocs = database.queryMany(this.collection, Filters.eq("playerId", playerId), Projections.include("id"), Document.class);
             database.deleteMany(this.collection, "playerId", playerId);
+            database.cache().invalidate(collection, "playerId", playerId);
+            for (Document warnDoc : warnDocs) database.cache().invalidate(collection, "id", warnDoc.getString("id"));
 
             return null;
         });
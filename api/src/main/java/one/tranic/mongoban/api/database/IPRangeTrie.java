@@ -0,0 +1,180 @@
+package one.tranic.mongoban.api.database;
+
+import one.tranic.mongoban.api.data.IPRange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A path-compressed binary radix trie answering longest-prefix-match lookups over {@link IPRange}s.
+ * <p>
+ * IPv4 and IPv6 ranges are kept in separate tries. A lookup walks at most one node per distinct prefix
+ * length on the path of the address, so its cost depends on the address width and not on the number of ranges.
+ * <p>
+ * Updates copy the path they change and publish a new root, so lookups never lock and always see
+ * a consistent trie while ranges are added or removed concurrently.
+ *
+ * @param <V> the type of the value stored for each range
+ */
+public class IPRangeTrie<V> {
+    private volatile @Nullable Node<V> v4;
+    private volatile @Nullable Node<V> v6;
+    private volatile int size;
+
+    private static int bit(byte[] key, int index) {
+        return (key[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    /**
+     * Counts the leading bits two keys have in common, up to {@code limit}.
+     */
+    private static int common(byte[] a, byte[] b, int limit) {
+        int bits = 0;
+        for (int i = 0; bits < limit; i++) {
+            int diff = (a[i] ^ b[i]) & 0xFF;
+            if (diff != 0) return Math.min(limit, bits + Integer.numberOfLeadingZeros(diff) - 24);
+            bits += 8;
+        }
+        return limit;
+    }
+
+    private static <V> Node<V> insert(@Nullable Node<V> node, byte[] key, int length, V value) {
+        if (node == null) return new Node<>(key, length, value, null, null);
+
+        int shared = common(node.key, key, Math.min(node.length, length));
+        if (shared == node.length) {
+            if (length == node.length) return node.with(value);
+            return node.with(bit(key, node.length), insert(node.child(bit(key, node.length)), key, length, value));
+        }
+        if (shared == length) {
+            Node<V> parent = new Node<>(key, length, value, null, null);
+            return parent.with(bit(node.key, length), node);
+        }
+        Node<V> parent = new Node<>(key, shared, null, null, null);
+        return parent
+                .with(bit(key, shared), new Node<>(key, length, value, null, null))
+                .with(bit(node.key, shared), node);
+    }
+
+    private static <V> @Nullable Node<V> remove(@Nullable Node<V> node, byte[] key, int length) {
+        if (node == null || node.length > length || common(node.key, key, node.length) < node.length) return node;
+
+        if (node.length == length) {
+            if (node.value == null) return node;
+            return node.without();
+        }
+
+        int bit = bit(key, node.length);
+        Node<V> child = node.child(bit);
+        Node<V> removed = remove(child, key, length);
+        if (removed == child) return node;
+        if (removed == null && node.value == null) return node.child(bit ^ 1);
+        return node.with(bit, removed);
+    }
+
+    /**
+     * Adds a range, replacing the value of an identical range if one exists.
+     *
+     * @param range the range to add
+     * @param value the value to store for the range
+     */
+    public synchronized void put(@NotNull IPRange range, @NotNull V value) {
+        if (get(range) == null) size++;
+        if (range.address().length == 4) v4 = insert(v4, range.address(), range.prefix(), value);
+        else v6 = insert(v6, range.address(), range.prefix(), value);
+    }
+
+    /**
+     * Removes a range. Narrower and wider ranges overlapping it are kept.
+     *
+     * @param range the range to remove
+     */
+    public synchronized void remove(@NotNull IPRange range) {
+        if (get(range) == null) return;
+        size--;
+        if (range.address().length == 4) v4 = remove(v4, range.address(), range.prefix());
+        else v6 = remove(v6, range.address(), range.prefix());
+    }
+
+    /**
+     * Removes every range.
+     */
+    public synchronized void clear() {
+        v4 = null;
+        v6 = null;
+        size = 0;
+    }
+
+    /**
+     * Retrieves the value stored for exactly the given range.
+     *
+     * @param range the range to look up
+     * @return the value of the range, or null if the range is not stored
+     */
+    public @Nullable V get(@NotNull IPRange range) {
+        byte[] key = range.address();
+        Node<V> node = key.length == 4 ? v4 : v6;
+        while (node != null && node.length <= range.prefix()) {
+            if (common(node.key, key, node.length) < node.length) return null;
+            if (node.length == range.prefix()) return node.value;
+            node = node.child(bit(key, node.length));
+        }
+        return null;
+    }
+
+    /**
+     * Finds the value of the most specific range containing an address.
+     *
+     * @param address the address, 4 bytes for IPv4 or 16 bytes for IPv6
+     * @return the value of the longest matching range, or null if no range contains the address
+     */
+    public @Nullable V match(@NotNull byte[] address) {
+        int bits = address.length * 8;
+        Node<V> node = address.length == 4 ? v4 : v6;
+        V best = null;
+        while (node != null) {
+            if (common(node.key, address, node.length) < node.length) break;
+            if (node.value != null) best = node.value;
+            if (node.length == bits) break;
+            node = node.child(bit(address, node.length));
+        }
+        return best;
+    }
+
+    /**
+     * Counts the stored ranges.
+     *
+     * @return the number of ranges
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * An immutable trie node, covering the first {@code length} bits of {@code key}.
+     */
+    private record Node<V>(byte[] key, int length, @Nullable V value, @Nullable Node<V> zero, @Nullable Node<V> one) {
+        @Nullable Node<V> child(int bit) {
+            return bit == 0 ? zero : one;
+        }
+
+        Node<V> with(V value) {
+            return new Node<>(key, length, value, zero, one);
+        }
+
+        Node<V> with(int bit, @Nullable Node<V> child) {
+            return bit == 0 ? new Node<>(key, length, value, child, one) : new Node<>(key, length, value, zero, child);
+        }
+
+        /**
+         * Drops the value of this node, collapsing it into its child when it no longer branches.
+         */
+        @Nullable Node<V> without() {
+            if (zero != null && one != null) return new Node<>(key, length, null, zero, one);
+            return zero != null ? zero : one;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package one.tranic.mongoban.api.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical lookups into a single execution.
+ * <p>
+ * While a lookup for a key is in flight, every other caller asking for the same key
+ * waits for and shares its result instead of starting a database round trip of its own.
+ * Once the lookup completes, the key is released and the next caller starts a fresh one.
+ * <p>
+ * Keys should be namespaced, for example with {@link DatabaseCache#key(String, String, Object)},
+ * since one instance is shared by all database applications.
+ */
+public class SingleFlight {
+    private final Map<Object, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a non-blocking lookup, or joins the lookup already in flight for the same key.
+     * <p>
+     * The key is held until the returned future completes, so callers arriving meanwhile share it
+     * without blocking a thread.
+     *
+     * @param key    the key identifying the lookup
+     * @param lookup the lookup to run if none is in flight
+     * @param <V>    the type of the lookup result
+     * @return the result of the lookup
+     */
+    @SuppressWarnings("unchecked")
+    public <V> CompletableFuture<V> runAsync(@NotNull Object key, @NotNull Supplier<CompletableFuture<V>> lookup) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = calls.putIfAbsent(key, call);
+        if (existing != null) return existing.thenApply(value -> (V) value);
+
+        CompletableFuture<V> result;
+        try {
+            result = lookup.get();
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+        result.whenComplete((value, error) -> {
+            calls.remove(key, call);
+            if (error != null) call.completeExceptionally(error);
+            else call.complete(value);
+        });
+        return result;
+    }
+
+    /**
+     * Runs a lookup, or joins the lookup already in flight for the same key.
+     *
+     * @param key    the key identifying the lookup
+     * @param lookup the lookup to run if none is in flight
+     * @param <V>    the type of the lookup result
+     * @return the result of the lookup
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V run(@NotNull Object key, @NotNull Supplier<V> lookup) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            try {
+                return (V) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+
+        try {
+            V value = lookup.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+}
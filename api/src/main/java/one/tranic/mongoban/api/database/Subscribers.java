@@ -0,0 +1,91 @@
+package one.tranic.mongoban.api.database;
+
+import one.tranic.t.utils.Collections;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bridges the publishers of the reactive-streams driver to {@link CompletableFuture}s.
+ * <p>
+ * The futures are completed on the driver's own callback threads, so no thread waits for the round trip.
+ */
+final class Subscribers {
+    private Subscribers() {
+    }
+
+    /**
+     * Collects every element of a publisher.
+     *
+     * @param publisher the publisher to subscribe to
+     * @param <T>       the element type
+     * @return a future completing with all elements once the publisher completes
+     */
+    static <T> CompletableFuture<List<T>> collect(@NotNull Publisher<T> publisher) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<>() {
+            private final List<T> elements = Collections.newArrayList();
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(T element) {
+                elements.add(element);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(elements);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Takes the first element of a publisher and cancels the rest.
+     *
+     * @param publisher the publisher to subscribe to
+     * @param <T>       the element type
+     * @return a future completing with the first element, or null if the publisher is empty
+     */
+    static <T> CompletableFuture<T> first(@NotNull Publisher<T> publisher) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(T element) {
+                if (future.complete(element)) subscription.cancel();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,152 @@
+package one.tranic.mongoban.api.database.codec;
+
+import com.mongodb.MongoClientSettings;
+import one.tranic.mongoban.api.data.IPAddress;
+import one.tranic.mongoban.api.parse.time.ExpiryParser;
+import one.tranic.t.base.command.Operator;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Holds the {@link CodecRegistry} used by the MongoDB clients and the helpers shared by the codecs of the data records.
+ * <p>
+ * The record codecs of {@link MongoBanCodecProvider} take precedence over the driver defaults,
+ * so a {@code MongoCollection<PlayerBanInfo>} decodes straight into records without building a {@link Document} first.
+ */
+public final class Codecs {
+    /**
+     * The codec registry of the MongoDB clients: the codecs of this package, then the driver defaults.
+     */
+    public static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+            CodecRegistries.fromProviders(new MongoBanCodecProvider()),
+            MongoClientSettings.getDefaultCodecRegistry()
+    );
+
+    /**
+     * Marks an {@code expiresAt} field that is missing or null, so the expiry has to be derived from the duration.
+     */
+    static final long NO_EXPIRY = Long.MIN_VALUE;
+
+    private Codecs() {
+    }
+
+    /**
+     * Reads an operator from a value of a generic {@link Document}, where it is decoded as a nested document.
+     *
+     * @param value the stored value
+     * @return the operator, or null if the value is not an operator
+     */
+    public static @Nullable Operator operator(@Nullable Object value) {
+        if (value instanceof Operator operator) return operator;
+        if (value instanceof Document doc) return new Operator(doc.getString("name"), doc.get("uuid") instanceof UUID uuid ? uuid : null);
+        return null;
+    }
+
+    /**
+     * Reads a UUID from a value of a {@link org.bson.RawBsonDocument}, which is left as binary data.
+     *
+     * @param value the stored value
+     * @return the UUID, or null if the value is not a UUID
+     */
+    public static @Nullable UUID uuid(@Nullable BsonValue value) {
+        if (value == null || !value.isBinary()) return null;
+        BsonBinary binary = value.asBinary();
+        if (binary.getType() == BsonBinarySubType.UUID_STANDARD.getValue()) return binary.asUuid();
+        if (binary.getType() == BsonBinarySubType.UUID_LEGACY.getValue()) return binary.asUuid(UuidRepresentation.JAVA_LEGACY);
+        return null;
+    }
+
+    static @Nullable String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) return reader.readString();
+        reader.skipValue();
+        return null;
+    }
+
+    static @Nullable UUID readUUID(BsonReader reader, DecoderContext context, Codec<UUID> uuids) {
+        if (reader.getCurrentBsonType() == BsonType.BINARY) return uuids.decode(reader, context);
+        reader.skipValue();
+        return null;
+    }
+
+    static @Nullable Operator readOperator(BsonReader reader, DecoderContext context, CodecRegistry registry) {
+        if (reader.getCurrentBsonType() == BsonType.DOCUMENT) return registry.get(Operator.class).decode(reader, context);
+        reader.skipValue();
+        return null;
+    }
+
+    static long readExpiresAt(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) return reader.readDateTime();
+        reader.skipValue();
+        return NO_EXPIRY;
+    }
+
+    static long expiresAt(long expiresAt, @Nullable String duration) {
+        return expiresAt != NO_EXPIRY ? expiresAt : ExpiryParser.parse(duration);
+    }
+
+    /**
+     * Reads an address stored in its binary form or as a legacy string, in its canonical text form.
+     */
+    static @Nullable String readIP(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case BINARY -> {
+                byte[] data = reader.readBinaryData().getData();
+                yield data.length == 4 || data.length == 16 ? IPAddress.of(data).toString() : null;
+            }
+            case STRING -> IPAddress.canonical(reader.readString());
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Writes an address in its binary form, or as is if it is not an address literal.
+     *
+     * @param name the field name, or null inside an array
+     */
+    static void writeIP(BsonWriter writer, @Nullable String name, @Nullable String ip) {
+        if (name != null) writer.writeName(name);
+        if (ip == null) {
+            writer.writeNull();
+            return;
+        }
+        IPAddress address = IPAddress.parse(ip);
+        if (address != null) writer.writeBinaryData(new BsonBinary(address.bytes()));
+        else writer.writeString(ip);
+    }
+
+    static void writeString(BsonWriter writer, String name, @Nullable String value) {
+        if (value != null) writer.writeString(name, value);
+        else writer.writeNull(name);
+    }
+
+    static void writeExpiresAt(BsonWriter writer, long expiresAt) {
+        Date date = ExpiryParser.toDate(expiresAt);
+        if (date != null) writer.writeDateTime("expiresAt", date.getTime());
+        else writer.writeNull("expiresAt");
+    }
+
+    static <T> void write(BsonWriter writer, String name, @Nullable T value, Codec<T> codec, EncoderContext context) {
+        writer.writeName(name);
+        if (value == null) writer.writeNull();
+        else context.encodeWithChildContext(codec, writer, value);
+    }
+}
@@ -0,0 +1,75 @@
+package one.tranic.mongoban.api.database.codec;
+
+import com.mongodb.client.model.Projections;
+import one.tranic.mongoban.api.data.IPBanInfo;
+import one.tranic.mongoban.api.data.IPRange;
+import one.tranic.t.base.command.Operator;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+/**
+ * Decodes IP and range ban documents of {@code mongo_ban} into {@link IPBanInfo}.
+ * <p>
+ * The address of an IP ban is read from its binary {@code ip} field in canonical text form,
+ * the CIDR of a range ban from its {@code range} field.
+ */
+public class IPBanInfoCodec implements Codec<IPBanInfo> {
+    /**
+     * The fields read by {@link #decode(BsonReader, DecoderContext)}, to be requested as the projection of a query.
+     */
+    public static final Bson FIELDS = Projections.fields(Projections.include("ip", "range", "operator", "duration", "reason", "expiresAt"), Projections.excludeId());
+
+    private final CodecRegistry registry;
+
+    public IPBanInfoCodec(CodecRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, IPBanInfo value, EncoderContext context) {
+        writer.writeStartDocument();
+        if (value.ip() != null && IPRange.isRange(value.ip())) writer.writeString("range", value.ip());
+        else Codecs.writeIP(writer, "ip", value.ip());
+        Codecs.write(writer, "operator", value.operator(), registry.get(Operator.class), context);
+        Codecs.writeString(writer, "duration", value.duration());
+        Codecs.writeExpiresAt(writer, value.expiresAt());
+        Codecs.writeString(writer, "reason", value.reason());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public IPBanInfo decode(BsonReader reader, DecoderContext context) {
+        String ip = null;
+        String range = null;
+        Operator operator = null;
+        String duration = null;
+        String reason = null;
+        long expiresAt = Codecs.NO_EXPIRY;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "ip" -> ip = Codecs.readIP(reader);
+                case "range" -> range = Codecs.readString(reader);
+                case "operator" -> operator = Codecs.readOperator(reader, context, registry);
+                case "duration" -> duration = Codecs.readString(reader);
+                case "reason" -> reason = Codecs.readString(reader);
+                case "expiresAt" -> expiresAt = Codecs.readExpiresAt(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new IPBanInfo(range != null ? range : ip, operator, duration, reason, Codecs.expiresAt(expiresAt, duration));
+    }
+
+    @Override
+    public Class<IPBanInfo> getEncoderClass() {
+        return IPBanInfo.class;
+    }
+}
@@ -0,0 +1,29 @@
+package one.tranic.mongoban.api.database.codec;
+
+import one.tranic.mongoban.api.data.IPBanInfo;
+import one.tranic.mongoban.api.data.PlayerBanInfo;
+import one.tranic.mongoban.api.data.PlayerInfo;
+import one.tranic.mongoban.api.data.PlayerWarnInfo;
+import one.tranic.t.base.command.Operator;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Provides the hand-written codecs of the data records and of {@link Operator}.
+ * <p>
+ * The codecs look up the {@link java.util.UUID} codec from the registry they are created for,
+ * so UUIDs follow the UUID representation configured on the client.
+ */
+public class MongoBanCodecProvider implements CodecProvider {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        if (clazz == Operator.class) return (Codec<T>) new OperatorCodec(registry);
+        if (clazz == PlayerBanInfo.class) return (Codec<T>) new PlayerBanInfoCodec(registry);
+        if (clazz == IPBanInfo.class) return (Codec<T>) new IPBanInfoCodec(registry);
+        if (clazz == PlayerWarnInfo.class) return (Codec<T>) new PlayerWarnInfoCodec(registry);
+        if (clazz == PlayerInfo.class) return (Codec<T>) new PlayerInfoCodec(registry);
+        return null;
+    }
+}
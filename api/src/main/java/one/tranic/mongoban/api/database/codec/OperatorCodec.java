@@ -0,0 +1,53 @@
+package one.tranic.mongoban.api.database.codec;
+
+import one.tranic.t.base.command.Operator;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.util.UUID;
+
+/**
+ * Stores an {@link Operator} as a nested {@code {name, uuid}} document.
+ */
+public class OperatorCodec implements Codec<Operator> {
+    private final CodecRegistry registry;
+
+    public OperatorCodec(CodecRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Operator value, EncoderContext context) {
+        writer.writeStartDocument();
+        Codecs.writeString(writer, "name", value.name());
+        Codecs.write(writer, "uuid", value.uuid(), registry.get(UUID.class), context);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Operator decode(BsonReader reader, DecoderContext context) {
+        String name = null;
+        UUID uuid = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "name" -> name = Codecs.readString(reader);
+                case "uuid" -> uuid = Codecs.readUUID(reader, context, registry.get(UUID.class));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new Operator(name, uuid);
+    }
+
+    @Override
+    public Class<Operator> getEncoderClass() {
+        return Operator.class;
+    }
+}
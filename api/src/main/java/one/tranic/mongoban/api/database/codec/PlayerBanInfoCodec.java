@@ -0,0 +1,77 @@
+package one.tranic.mongoban.api.database.codec;
+
+import com.mongodb.client.model.Projections;
+import one.tranic.mongoban.api.data.PlayerBanInfo;
+import one.tranic.mongoban.api.database.DatabasePlayerApplication;
+import one.tranic.t.base.command.Operator;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+import java.util.UUID;
+
+/**
+ * Decodes player ban documents of {@code mongo_ban} into {@link PlayerBanInfo}.
+ * <p>
+ * Bans stored before {@code expiresAt} existed get their expiry from the duration.
+ */
+public class PlayerBanInfoCodec implements Codec<PlayerBanInfo> {
+    /**
+     * The fields read by {@link #decode(BsonReader, DecoderContext)}, to be requested as the projection of a query.
+     */
+    public static final Bson FIELDS = Projections.fields(Projections.include("id", "name", "operator", "duration", "reason", "expiresAt"), Projections.excludeId());
+
+    private final CodecRegistry registry;
+
+    public PlayerBanInfoCodec(CodecRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, PlayerBanInfo value, EncoderContext context) {
+        writer.writeStartDocument();
+        Codecs.write(writer, "id", value.uuid(), registry.get(UUID.class), context);
+        Codecs.writeString(writer, "name", value.name());
+        Codecs.writeString(writer, "nameLower", DatabasePlayerApplication.normalizeName(value.name()));
+        Codecs.write(writer, "operator", value.operator(), registry.get(Operator.class), context);
+        Codecs.writeString(writer, "duration", value.duration());
+        Codecs.writeExpiresAt(writer, value.expiresAt());
+        Codecs.writeString(writer, "reason", value.reason());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public PlayerBanInfo decode(BsonReader reader, DecoderContext context) {
+        UUID uuid = null;
+        String name = null;
+        Operator operator = null;
+        String duration = null;
+        String reason = null;
+        long expiresAt = Codecs.NO_EXPIRY;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id" -> uuid = Codecs.readUUID(reader, context, registry.get(UUID.class));
+                case "name" -> name = Codecs.readString(reader);
+                case "operator" -> operator = Codecs.readOperator(reader, context, registry);
+                case "duration" -> duration = Codecs.readString(reader);
+                case "reason" -> reason = Codecs.readString(reader);
+                case "expiresAt" -> expiresAt = Codecs.readExpiresAt(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new PlayerBanInfo(uuid, name, operator, duration, reason, Codecs.expiresAt(expiresAt, duration));
+    }
+
+    @Override
+    public Class<PlayerBanInfo> getEncoderClass() {
+        return PlayerBanInfo.class;
+    }
+}
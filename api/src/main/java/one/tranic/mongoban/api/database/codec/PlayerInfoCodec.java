@@ -0,0 +1,82 @@
+package one.tranic.mongoban.api.database.codec;
+
+import com.mongodb.client.model.Projections;
+import one.tranic.mongoban.api.data.PlayerInfo;
+import one.tranic.mongoban.api.database.DatabasePlayerApplication;
+import one.tranic.t.utils.Collections;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Encodes and decodes the player documents of {@code mongo_player} as {@link PlayerInfo}.
+ * <p>
+ * The IP history is read oldest first, in canonical text form.
+ */
+public class PlayerInfoCodec implements Codec<PlayerInfo> {
+    /**
+     * The fields read by {@link #decode(BsonReader, DecoderContext)}, to be requested as the projection of a query.
+     */
+    public static final Bson FIELDS = Projections.fields(Projections.include("id", "name", "ip"), Projections.excludeId());
+
+    private final CodecRegistry registry;
+
+    public PlayerInfoCodec(CodecRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, PlayerInfo value, EncoderContext context) {
+        writer.writeStartDocument();
+        Codecs.write(writer, "id", value.uuid(), registry.get(UUID.class), context);
+        Codecs.writeString(writer, "name", value.name());
+        Codecs.writeString(writer, "nameLower", DatabasePlayerApplication.normalizeName(value.name()));
+        writer.writeStartArray("ip");
+        if (value.ip() != null) for (String ip : value.ip()) Codecs.writeIP(writer, null, ip);
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public PlayerInfo decode(BsonReader reader, DecoderContext context) {
+        UUID uuid = null;
+        String name = null;
+        List<String> ips = Collections.newArrayList();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id" -> uuid = Codecs.readUUID(reader, context, registry.get(UUID.class));
+                case "name" -> name = Codecs.readString(reader);
+                case "ip" -> {
+                    if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        String ip = Codecs.readIP(reader);
+                        if (ip != null) ips.add(ip);
+                    }
+                    reader.readEndArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new PlayerInfo(name, uuid, ips);
+    }
+
+    @Override
+    public Class<PlayerInfo> getEncoderClass() {
+        return PlayerInfo.class;
+    }
+}
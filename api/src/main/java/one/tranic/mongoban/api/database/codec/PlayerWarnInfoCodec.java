@@ -0,0 +1,70 @@
+package one.tranic.mongoban.api.database.codec;
+
+import com.mongodb.client.model.Projections;
+import one.tranic.mongoban.api.data.PlayerWarnInfo;
+import one.tranic.t.base.command.Operator;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+import java.util.UUID;
+
+/**
+ * Encodes and decodes the warning documents of {@code mongo_warn} as {@link PlayerWarnInfo}.
+ */
+public class PlayerWarnInfoCodec implements Codec<PlayerWarnInfo> {
+    /**
+     * The fields read by {@link #decode(BsonReader, DecoderContext)}, to be requested as the projection of a query.
+     */
+    public static final Bson FIELDS = Projections.fields(Projections.include("id", "playerId", "operator", "duration", "reason"), Projections.excludeId());
+
+    private final CodecRegistry registry;
+
+    public PlayerWarnInfoCodec(CodecRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, PlayerWarnInfo value, EncoderContext context) {
+        writer.writeStartDocument();
+        Codecs.writeString(writer, "id", value.id());
+        Codecs.write(writer, "playerId", value.uuid(), registry.get(UUID.class), context);
+        Codecs.write(writer, "operator", value.operator(), registry.get(Operator.class), context);
+        Codecs.writeString(writer, "duration", value.duration());
+        Codecs.writeString(writer, "reason", value.reason());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public PlayerWarnInfo decode(BsonReader reader, DecoderContext context) {
+        UUID uuid = null;
+        Operator operator = null;
+        String id = null;
+        String duration = null;
+        String reason = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id" -> id = Codecs.readString(reader);
+                case "playerId" -> uuid = Codecs.readUUID(reader, context, registry.get(UUID.class));
+                case "operator" -> operator = Codecs.readOperator(reader, context, registry);
+                case "duration" -> duration = Codecs.readString(reader);
+                case "reason" -> reason = Codecs.readString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new PlayerWarnInfo(uuid, operator, id, duration, reason);
+    }
+
+    @Override
+    public Class<PlayerWarnInfo> getEncoderClass() {
+        return PlayerWarnInfo.class;
+    }
+}
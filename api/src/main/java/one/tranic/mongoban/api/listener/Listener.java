@@ -1,15 +1,18 @@
 package one.tranic.mongoban.api.listener;
 
 import net.kyori.adventure.text.Component;
+import one.tranic.mongoban.api.MongoBanAPI;
 import one.tranic.mongoban.api.MongoDataAPI;
+import one.tranic.mongoban.api.data.BanVerdict;
+import one.tranic.mongoban.api.data.IPAddress;
 import one.tranic.mongoban.api.data.IPBanInfo;
-import one.tranic.mongoban.api.data.PlayerBanInfo;
 import one.tranic.mongoban.api.message.Message;
 import one.tranic.t.base.TBase;
 import org.jetbrains.annotations.Nullable;
 
 import java.net.InetAddress;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The Listener abstract class provides a framework for handling pre-login events
@@ -57,8 +60,15 @@ public abstract class Listener<T> {
     /**
      * Processes a pre-login event to handle user access based on IP and player ban information.
      * <p>
+     * When the ban index is loaded, connections without an indexed ban or a matching range ban
+     * skip the database lookups entirely.
+     * <p>
+     * Otherwise the IP and player bans are resolved together in a single query.
      * If the IP or player UUID is found in the ban records, the login attempt is disallowed
-     * with an appropriate kick message. If no bans are found, the user data is added to the database.
+     * with an appropriate kick message. If no bans are found, the login is recorded in the player database.
+     * <p>
+     * This method blocks the calling thread on the database, platforms with asynchronous events
+     * should prefer {@link #doItAsync(Object, String, UUID, InetAddress)}.
      *
      * @param event    The event object representing the pre-login action to be processed.
      * @param username The username of the player attempting to log in.
@@ -67,23 +77,116 @@ public abstract class Listener<T> {
      */
     public void doIt(T event, String username, UUID uuid, InetAddress ip) {
         var db = MongoDataAPI.getDatabase().ban();
-        var addr = ip.getHostAddress();
+        var address = IPAddress.of(ip);
+        var addr = address.toString();
 
-        IPBanInfo result = db.ip().find(addr).sync();
-        if (result != null) {
-            handleIPBan(event, uuid, username, result, addr);
+        // The resident index rules out clean logins in memory, hits are still confirmed against the database.
+        if (db.index().isLoaded() && !db.index().mayBeBanned(uuid, address) && db.range().match(ip) == null) {
+            MongoDataAPI.getDatabase().player().record(username, uuid, addr);
             return;
-        } else {
-            PlayerBanInfo playerResult = db.player()
-                    .find(uuid)
-                    .sync();
-            if (playerResult != null) {
-                disallow(event, Message.kickMessage(playerResult));
+        }
+
+        apply(event, username, uuid, addr, db.check(uuid, address).sync());
+    }
+
+    /**
+     * Processes a pre-login event like {@link #doIt(Object, String, UUID, InetAddress)},
+     * without blocking the calling thread on the database.
+     * <p>
+     * The returned future completes once the event has been allowed or disallowed.
+     * If the ban lookup fails, the error is logged and the login is let through.
+     *
+     * @param event    The event object representing the pre-login action to be processed.
+     * @param username The username of the player attempting to log in.
+     * @param uuid     The universally unique identifier (UUID) of the player.
+     * @param ip       The IP address of the player attempting to log in.
+     * @return a {@link CompletableFuture} completing when the event has been processed
+     */
+    public CompletableFuture<Void> doItAsync(T event, String username, UUID uuid, InetAddress ip) {
+        var db = MongoDataAPI.getDatabase().ban();
+        var address = IPAddress.of(ip);
+        var addr = address.toString();
+
+        if (db.index().isLoaded() && !db.index().mayBeBanned(uuid, address) && db.range().match(ip) == null) {
+            MongoDataAPI.getDatabase().player().record(username, uuid, addr);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return db.checkAsync(uuid, address)
+                .thenAccept(verdict -> apply(event, username, uuid, addr, verdict))
+                .exceptionally(e -> {
+                    MongoBanAPI.logger.error("Failed to check the bans of {}: {}", username, e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Looks up an active IP ban for a connection that has not been authenticated yet.
+     * <p>
+     * Range bans are matched in memory first. When the ban index is loaded, addresses without an indexed ban
+     * are answered in memory as well,
+     * otherwise the lookup goes through {@code DatabaseBanApplication.ip()} without blocking a thread.
+     * If the lookup fails, the error is logged and no ban is reported.
+     *
+     * @param ip The IP address of the connection.
+     * @return a {@link CompletableFuture} holding the active {@link IPBanInfo}, or null if the address is not banned
+     */
+    public CompletableFuture<IPBanInfo> findIPBan(InetAddress ip) {
+        var db = MongoDataAPI.getDatabase().ban();
+        var address = IPAddress.of(ip);
+        var addr = address.toString();
+
+        IPBanInfo rangeBan = db.range().match(ip);
+        if (rangeBan != null) return CompletableFuture.completedFuture(rangeBan);
+        if (db.index().isLoaded() && db.index().findIP(address) == null) return CompletableFuture.completedFuture(null);
+
+        return db.ip().findAsync(address)
+                .exceptionally(e -> {
+                    MongoBanAPI.logger.error("Failed to check the bans of {}: {}", addr, e.getMessage());
+                    return null;
+                });
+    }
+
+    private void apply(T event, String username, UUID uuid, String addr, BanVerdict verdict) {
+        switch (verdict.type()) {
+            case IP -> {
+                handleIPBan(event, uuid, username, verdict.ip(), addr);
+                return;
+            }
+            case PLAYER -> {
+                disallow(event, Message.kickMessage(verdict.player()));
                 return;
             }
         }
 
-        MongoDataAPI.getDatabase().player().add(username, uuid, ip.getHostAddress());
+        MongoDataAPI.getDatabase().player().record(username, uuid, addr);
+    }
+
+    /**
+     * Bans the account of a connection that was refused for its IP address before authentication,
+     * as {@link #doIt(Object, String, UUID, InetAddress)} does for logins refused at login.
+     * <p>
+     * The name sent before authentication is not verified, so the account is only banned
+     * when the player database already records it logging in from the banned address.
+     * Other accounts are not banned, they stay refused for as long as the IP ban lasts.
+     *
+     * @param username  The name sent by the connection.
+     * @param ipBanInfo The IP ban the connection was refused for.
+     * @param ip        The IP address of the connection.
+     */
+    public void banAccount(String username, IPBanInfo ipBanInfo, InetAddress ip) {
+        var addr = IPAddress.of(ip).toString();
+
+        MongoDataAPI.getDatabase()
+                .player().find(username).async()
+                .thenAcceptAsync(playerInfo -> {
+                    if (playerInfo != null && playerInfo.ip().contains(addr))
+                        banIfAbsent(playerInfo.uuid(), playerInfo.name(), ipBanInfo, addr);
+                }, TBase.executor)
+                .exceptionally(e -> {
+                    MongoBanAPI.logger.error("Failed to ban the account of {}: {}", username, e.getMessage());
+                    return null;
+                });
     }
 
     /**
@@ -99,17 +202,14 @@ public abstract class Listener<T> {
      * @param ipAddress The IP address of the player potentially being banned.
      */
     private void handleIPBan(T event, UUID uuid, String name, IPBanInfo ipBanInfo, String ipAddress) {
-        MongoDataAPI.getDatabase().ban()
-                .player().find(uuid).async()
-                .thenAcceptAsync(playerInfo -> {
-                    if (playerInfo == null) {
-                        MongoDataAPI.getDatabase().ban()
-                                .player()
-                                .add(uuid, name, TBase.console(), ipBanInfo.duration(), ipAddress, ipBanInfo.reason())
-                                .sync();
-                    }
-                }, TBase.executor);
+        CompletableFuture.runAsync(() -> banIfAbsent(uuid, name, ipBanInfo, ipAddress), TBase.executor);
 
         disallow(event, Message.kickMessage(ipBanInfo));
     }
+
+    private static void banIfAbsent(UUID uuid, String name, IPBanInfo ipBanInfo, String ipAddress) {
+        var bans = MongoDataAPI.getDatabase().ban().player();
+        if (bans.find(uuid).sync() == null)
+            bans.add(uuid, name, TBase.console(), ipBanInfo.duration(), ipAddress, ipBanInfo.reason()).sync();
+    }
 }
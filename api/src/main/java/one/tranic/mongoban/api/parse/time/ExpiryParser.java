@@ -0,0 +1,92 @@
+package one.tranic.mongoban.api.parse.time;
+
+import one.tranic.t.base.parse.time.TimeParser;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The ExpiryParser class turns the {@code duration} strings stored with bans into absolute expiry timestamps.
+ * <p>
+ * Relative durations such as {@code 30d} or {@code 1y6mo} count from the moment they are parsed,
+ * so they are meant to be parsed once, when the ban is written. Absolute times produced by
+ * {@link TimeParser#parse(String)} are converted as they are.
+ */
+public class ExpiryParser {
+    /**
+     * The expiry of a ban that never expires.
+     */
+    public static final long NEVER = Long.MAX_VALUE;
+    /**
+     * The expiry of a ban that has no duration and is therefore already expired.
+     */
+    public static final long EXPIRED = 0L;
+    /**
+     * Marks a duration whose expiry cannot be determined up front and has to be evaluated on every check.
+     */
+    public static final long UNKNOWN = -1L;
+
+    private static final Pattern RELATIVE = Pattern.compile("(?:\\d+(?:mo|y|d|h|m|s))+");
+    private static final Pattern PART = Pattern.compile("(\\d+)(mo|y|d|h|m|s)");
+
+    /**
+     * Computes the absolute expiry of a duration.
+     *
+     * @param duration the duration as stored with a ban, such as {@code forever}, {@code 7d} or an absolute time
+     * @return the expiry in epoch milliseconds, {@link #NEVER}, {@link #EXPIRED} or {@link #UNKNOWN}
+     */
+    public static long parse(@Nullable String duration) {
+        if (duration == null || duration.isBlank()) return EXPIRED;
+        String value = duration.trim();
+        if (value.equals("forever")) return NEVER;
+        if (RELATIVE.matcher(value).matches()) return relative(value, System.currentTimeMillis());
+
+        try {
+            Object time = TimeParser.parseStringTime(value);
+            if (time instanceof Long millis) return millis;
+            if (time instanceof Instant instant) return instant.toEpochMilli();
+            if (time instanceof Date date) return date.getTime();
+            if (time instanceof ZonedDateTime dateTime) return dateTime.toInstant().toEpochMilli();
+            if (time instanceof OffsetDateTime dateTime) return dateTime.toInstant().toEpochMilli();
+            if (time instanceof LocalDateTime dateTime)
+                return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (Exception ignored) {
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Converts an expiry into the value stored in the {@code expiresAt} field of a document.
+     *
+     * @param expiresAt the expiry in epoch milliseconds, as returned by {@link #parse(String)}
+     * @return the expiry as a {@link Date}, or null if the ban does not expire at a known time
+     */
+    public static @Nullable Date toDate(long expiresAt) {
+        return expiresAt == NEVER || expiresAt == UNKNOWN ? null : new Date(expiresAt);
+    }
+
+    private static long relative(String duration, long from) {
+        long millis = 0;
+        Matcher matcher = PART.matcher(duration);
+        while (matcher.find()) {
+            long amount = Long.parseLong(matcher.group(1));
+            millis += switch (matcher.group(2)) {
+                case "y" -> TimeUnit.DAYS.toMillis(365 * amount);
+                case "mo" -> TimeUnit.DAYS.toMillis(30 * amount);
+                case "d" -> TimeUnit.DAYS.toMillis(amount);
+                case "h" -> TimeUnit.HOURS.toMillis(amount);
+                case "m" -> TimeUnit.MINUTES.toMillis(amount);
+                default -> TimeUnit.SECONDS.toMillis(amount);
+            };
+        }
+        return from + millis;
+    }
+}
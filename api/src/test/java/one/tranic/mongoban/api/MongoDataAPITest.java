@@ -0,0 +1,65 @@
+package one.tranic.mongoban.api;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import one.tranic.mongoban.api.config.Config;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MongoDataAPITest {
+    private static Config.database database(String uri, String compressors, String readPreference) {
+        return new Config.database("db.example.com", 27018, "MongoBan", "admin", "secret",
+                new Config.database.client(uri, 2, 20, 60000, 5000, 0, 15000, compressors, readPreference));
+    }
+
+    private static List<String> names(List<MongoCompressor> compressors) {
+        return compressors.stream().map(MongoCompressor::getName).toList();
+    }
+
+    @Test
+    void connectsToTheConfiguredHostWithoutAUri() {
+        MongoClientSettings settings = MongoDataAPI.clientSettings(database("", null, "secondaryPreferred")).build();
+
+        assertEquals("db.example.com:27018", settings.getClusterSettings().getHosts().getFirst().toString());
+        assertEquals("admin", settings.getCredential().getUserName());
+        assertEquals(20, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(2, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(5000, settings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(15000, settings.getClusterSettings().getServerSelectionTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(ReadPreference.secondaryPreferred(), settings.getReadPreference());
+    }
+
+    @Test
+    void letsTheUriReplaceHostAndOverrideTheSection() {
+        MongoClientSettings settings = MongoDataAPI.clientSettings(database(
+                " mongodb://a.example.com:27017,b.example.com:27017/?maxPoolSize=7&readPreference=nearest ",
+                null, "secondary")).build();
+
+        assertEquals(2, settings.getClusterSettings().getHosts().size());
+        assertNull(settings.getCredential());
+        assertEquals(7, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(2, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(ReadPreference.nearest(), settings.getReadPreference());
+    }
+
+    @Test
+    void fallsBackToPrimaryOnAnUnknownReadPreference() {
+        MongoClientSettings settings = MongoDataAPI.clientSettings(database(null, null, "fastest")).build();
+        assertEquals(ReadPreference.primary(), settings.getReadPreference());
+    }
+
+    @Test
+    void acceptsOnlyZlibCompression() {
+        assertTrue(MongoDataAPI.compressors(null).isEmpty());
+        assertTrue(MongoDataAPI.compressors(" ").isEmpty());
+        assertEquals(List.of("zlib"), names(MongoDataAPI.compressors(" ZLIB, ,lz4")));
+        assertEquals(List.of("zlib"), names(MongoDataAPI.compressors("zstd,snappy,zlib")));
+    }
+}
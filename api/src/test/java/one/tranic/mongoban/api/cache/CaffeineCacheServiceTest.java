@@ -0,0 +1,90 @@
+package one.tranic.mongoban.api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaffeineCacheServiceTest {
+    private static void eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void honoursPerEntryTtls() throws Exception {
+        CaffeineCacheService cache = new CaffeineCacheService(1024 * 1024, Duration.ofMinutes(1));
+        try {
+            cache.put("short", "value", 1);
+            cache.put("long", "value", 60);
+            assertEquals(Optional.of("value"), cache.get("short", String.class));
+
+            Thread.sleep(1200);
+            assertEquals(Optional.empty(), cache.get("short", String.class));
+            assertEquals(Optional.of("value"), cache.get("long", String.class));
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    void appliesTheDefaultTtlWithoutOne() throws Exception {
+        CaffeineCacheService cache = new CaffeineCacheService(1024 * 1024, Duration.ofMillis(300));
+        try {
+            cache.put("key", "value", 0);
+            assertEquals("value", cache.get("key"));
+
+            Thread.sleep(500);
+            assertEquals("", cache.get("key"));
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    void boundsEntriesByWeight() throws Exception {
+        CaffeineCacheService cache = new CaffeineCacheService(10_000, Duration.ofMinutes(1));
+        try {
+            // Each entry weighs about 64 + 2 * 6 + 40 + 2 * 100 = 316 bytes.
+            String value = "x".repeat(100);
+            for (int i = 0; i < 1000; i++) cache.put("key" + (1000 + i), value, 0);
+
+            eventually(() -> cache.size() <= 10_000 / 316);
+            assertTrue(cache.stats().evictionCount() > 0);
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    void weighsArraysByTheirLength() throws Exception {
+        CaffeineCacheService cache = new CaffeineCacheService(4096, Duration.ofMinutes(1));
+        try {
+            cache.put("small", new String[]{"a"}, 0);
+            cache.put("large", new String[64], 0);
+
+            eventually(() -> cache.get("large", String[].class).isEmpty());
+            assertTrue(cache.get("small", String[].class).isPresent());
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    void returnsOnlyValuesOfTheRequestedType() {
+        CaffeineCacheService cache = new CaffeineCacheService(1024 * 1024, Duration.ofMinutes(1));
+        try {
+            cache.put("key", 42, 0);
+            assertEquals(Optional.empty(), cache.get("key", String.class));
+            assertEquals(Optional.of(42), cache.get("key", Integer.class));
+            assertEquals("42", cache.get("key"));
+        } finally {
+            cache.close();
+        }
+    }
+}
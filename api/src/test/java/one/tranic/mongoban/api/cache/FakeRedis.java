@@ -0,0 +1,226 @@
+package one.tranic.mongoban.api.cache;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * A minimal in-process Redis server speaking just enough RESP for the cache services:
+ * strings with expiry, pipelining and pub/sub.
+ */
+final class FakeRedis implements AutoCloseable {
+    final Map<String, String> values = new ConcurrentHashMap<>();
+    final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+    final List<String> published = new CopyOnWriteArrayList<>();
+
+    private final ServerSocket server;
+    private final Map<String, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    FakeRedis() throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofPlatform().daemon().name("FakeRedis").start(this::accept);
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    int subscribers(String channel) {
+        return subscribers.getOrDefault(channel, Set.of()).size();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Connection connection = new Connection(server.accept());
+                connections.add(connection);
+                Thread.ofPlatform().daemon().start(connection::serve);
+            } catch (IOException ignored) {
+                return;
+            }
+        }
+    }
+
+    private boolean live(String key) {
+        Long deadline = deadlines.get(key);
+        if (deadline != null && deadline <= System.currentTimeMillis()) {
+            values.remove(key);
+            deadlines.remove(key);
+        }
+        return values.containsKey(key);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Connection connection : connections) connection.close();
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = socket.getOutputStream();
+        }
+
+        void serve() {
+            try {
+                List<String> command;
+                while ((command = read()) != null) handle(command);
+            } catch (IOException ignored) {
+            } finally {
+                close();
+            }
+        }
+
+        private void handle(List<String> command) throws IOException {
+            String name = command.getFirst().toUpperCase();
+            switch (name) {
+                case "PING" -> simple("PONG");
+                case "GET" -> bulk(live(command.get(1)) ? values.get(command.get(1)) : null);
+                case "SET" -> {
+                    values.put(command.get(1), command.get(2));
+                    deadlines.remove(command.get(1));
+                    simple("OK");
+                }
+                case "SETEX" -> {
+                    values.put(command.get(1), command.get(3));
+                    deadlines.put(command.get(1), System.currentTimeMillis() + Long.parseLong(command.get(2)) * 1000);
+                    simple("OK");
+                }
+                case "DEL" -> {
+                    long removed = 0;
+                    for (String key : command.subList(1, command.size())) {
+                        if (live(key)) removed++;
+                        values.remove(key);
+                        deadlines.remove(key);
+                    }
+                    integer(removed);
+                }
+                case "TTL" -> {
+                    String key = command.get(1);
+                    if (!live(key)) integer(-2);
+                    else {
+                        Long deadline = deadlines.get(key);
+                        integer(deadline == null ? -1 : Math.max(0, (deadline - System.currentTimeMillis() + 999) / 1000));
+                    }
+                }
+                case "FLUSHDB" -> {
+                    values.clear();
+                    deadlines.clear();
+                    simple("OK");
+                }
+                case "PUBLISH" -> {
+                    published.add(command.get(2));
+                    Set<Connection> receivers = subscribers.getOrDefault(command.get(1), Set.of());
+                    for (Connection receiver : receivers) receiver.push("message", command.get(1), command.get(2));
+                    integer(receivers.size());
+                }
+                case "SUBSCRIBE" -> {
+                    for (String channel : command.subList(1, command.size())) {
+                        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArraySet<>()).add(this);
+                        subscription("subscribe", channel, 1);
+                    }
+                }
+                case "UNSUBSCRIBE" -> {
+                    List<String> channels = new ArrayList<>(command.subList(1, command.size()));
+                    if (channels.isEmpty()) for (Map.Entry<String, Set<Connection>> entry : subscribers.entrySet())
+                        if (entry.getValue().contains(this)) channels.add(entry.getKey());
+                    for (String channel : channels) {
+                        Set<Connection> receivers = subscribers.get(channel);
+                        if (receivers != null) receivers.remove(this);
+                        subscription("unsubscribe", channel, 0);
+                    }
+                }
+                default -> simple("OK");
+            }
+        }
+
+        private List<String> read() throws IOException {
+            String header = line();
+            if (header == null) return null;
+            if (header.charAt(0) != '*') return List.of(header.split(" "));
+            int count = Integer.parseInt(header.substring(1));
+            List<String> command = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = Integer.parseInt(line().substring(1));
+                byte[] data = in.readNBytes(length + 2);
+                command.add(new String(data, 0, length, StandardCharsets.UTF_8));
+            }
+            return command;
+        }
+
+        private String line() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\r') {
+                    in.read();
+                    return line.toString();
+                }
+                line.append((char) c);
+            }
+            return null;
+        }
+
+        private synchronized void write(String reply) throws IOException {
+            out.write(reply.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        private void simple(String value) throws IOException {
+            write("+" + value + "\r\n");
+        }
+
+        private void integer(long value) throws IOException {
+            write(":" + value + "\r\n");
+        }
+
+        private void bulk(String value) throws IOException {
+            write(encode(value));
+        }
+
+        private void subscription(String kind, String channel, long count) throws IOException {
+            write("*3\r\n" + encode(kind) + encode(channel) + ":" + count + "\r\n");
+        }
+
+        private void push(String kind, String channel, String message) {
+            try {
+                write("*3\r\n" + encode(kind) + encode(channel) + encode(message));
+            } catch (IOException ignored) {
+                close();
+            }
+        }
+
+        private String encode(String value) {
+            if (value == null) return "$-1\r\n";
+            return "$" + value.getBytes(StandardCharsets.UTF_8).length + "\r\n" + value + "\r\n";
+        }
+
+        void close() {
+            connections.remove(this);
+            for (Set<Connection> receivers : subscribers.values()) receivers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
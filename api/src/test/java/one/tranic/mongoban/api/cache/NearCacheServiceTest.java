@@ -0,0 +1,100 @@
+package one.tranic.mongoban.api.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearCacheServiceTest {
+    private FakeRedis redis;
+    private CaffeineCacheService local;
+    private NearCacheService near;
+
+    @BeforeEach
+    void start() throws Exception {
+        redis = new FakeRedis();
+        local = new CaffeineCacheService(1024 * 1024, Duration.ofMinutes(1));
+        near = new NearCacheService(local, remote(), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        near.close();
+        redis.close();
+    }
+
+    private RedisCacheService remote() {
+        return new RedisCacheService("127.0.0.1", redis.port(), 0, null, null);
+    }
+
+    @Test
+    void promotesRemoteHitsIntoTheLocalTier() {
+        RedisCacheService other = remote();
+        try {
+            other.put("key", "value", 60);
+        } finally {
+            other.close();
+        }
+        assertEquals(Optional.empty(), local.get("key", String.class));
+
+        assertEquals(Optional.of("value"), near.get("key", String.class));
+        assertEquals(Optional.of("value"), local.get("key", String.class));
+
+        // Served from the local tier even once Redis no longer has it.
+        redis.values.clear();
+        assertEquals(Optional.of("value"), near.get("key", String.class));
+    }
+
+    @Test
+    void writesAndInvalidatesBothTiers() {
+        near.put("key", "value", 60);
+        assertEquals("\"value\"", redis.values.get("key"));
+        assertEquals(Optional.of("value"), local.get("key", String.class));
+
+        near.invalidate("key");
+        assertFalse(redis.values.containsKey("key"));
+        assertEquals(Optional.empty(), local.get("key", String.class));
+        assertEquals(Optional.empty(), near.get("key", String.class));
+    }
+
+    @Test
+    void capsLocalEntriesByTheRequestedTtl() throws Exception {
+        near.put("short", "value", 1);
+        assertEquals(Optional.of("value"), local.get("short", String.class));
+
+        Thread.sleep(1200);
+        assertEquals(Optional.empty(), local.get("short", String.class));
+    }
+
+    @Test
+    void keepsPromotedEntriesNoLongerThanTheirRemoteCopy() throws Exception {
+        RedisCacheService other = remote();
+        try {
+            other.put("key", "value", 1);
+        } finally {
+            other.close();
+        }
+        assertEquals(Optional.of("value"), near.get("key", String.class));
+        assertEquals(Optional.of("value"), local.get("key", String.class));
+
+        Thread.sleep(1200);
+        assertEquals(Optional.empty(), local.get("key", String.class));
+    }
+
+    @Test
+    void clearsBothTiers() {
+        near.put("a", "1", 60);
+        near.put("b", "2", 60);
+
+        near.invalidateAll();
+        assertTrue(redis.values.isEmpty());
+        assertEquals("", local.get("a"));
+        assertEquals("", near.get("b"));
+    }
+}
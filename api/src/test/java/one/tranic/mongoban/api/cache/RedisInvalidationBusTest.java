@@ -0,0 +1,101 @@
+package one.tranic.mongoban.api.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RedisInvalidationBusTest {
+    private static final String CHANNEL = "mongoban:invalidate:0";
+
+    private FakeRedis redis;
+    private RedisCacheService first;
+    private RedisCacheService second;
+
+    @BeforeEach
+    void start() throws Exception {
+        redis = new FakeRedis();
+        first = new RedisCacheService("127.0.0.1", redis.port(), 0, null, null);
+        second = new RedisCacheService("127.0.0.1", redis.port(), 0, null, null);
+        awaitSubscribers(2);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        first.close();
+        second.close();
+        redis.close();
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (redis.subscribers(CHANNEL) < count && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(count, redis.subscribers(CHANNEL));
+    }
+
+    private static void assertNothingReceived(BlockingQueue<?> received) throws InterruptedException {
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void announcesInvalidationsToOtherServersOnly() throws Exception {
+        BlockingQueue<String> own = new LinkedBlockingQueue<>();
+        BlockingQueue<String> other = new LinkedBlockingQueue<>();
+        first.addInvalidationListener(key -> own.add(String.valueOf(key)));
+        second.addInvalidationListener(key -> other.add(String.valueOf(key)));
+
+        // Writes are not announced, so the first message is the invalidation.
+        first.put("key", "value", 60);
+        first.invalidate("key");
+        assertEquals("key", other.poll(5, TimeUnit.SECONDS));
+
+        first.invalidateAll();
+        assertEquals("null", other.poll(5, TimeUnit.SECONDS));
+
+        assertNothingReceived(own);
+    }
+
+    @Test
+    void ignoresMalformedMessages() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        second.addInvalidationListener(key -> received.add(String.valueOf(key)));
+        try (Jedis jedis = new Jedis("127.0.0.1", redis.port())) {
+            jedis.publish(CHANNEL, "garbage");
+            jedis.publish(CHANNEL, "node|del");
+            jedis.publish(CHANNEL, "node|put|other");
+            jedis.publish(CHANNEL, "node|del|key");
+        }
+
+        assertEquals("key", received.poll(5, TimeUnit.SECONDS));
+        assertNothingReceived(received);
+    }
+
+    @Test
+    void evictsNearCacheEntriesChangedElsewhere() throws Exception {
+        CaffeineCacheService local = new CaffeineCacheService(1024 * 1024, Duration.ofMinutes(1));
+        NearCacheService near = new NearCacheService(local, new RedisCacheService("127.0.0.1", redis.port(), 0, null, null), Duration.ofMinutes(1));
+        try {
+            awaitSubscribers(3);
+            near.put("key", "value", 60);
+            assertEquals(Optional.of("value"), local.get("key", String.class));
+
+            BlockingQueue<String> evicted = new LinkedBlockingQueue<>();
+            near.addInvalidationListener(key -> evicted.add(String.valueOf(key)));
+            second.invalidate("key");
+            assertEquals("key", evicted.poll(5, TimeUnit.SECONDS));
+            assertEquals(Optional.empty(), local.get("key", String.class));
+            assertEquals("", near.get("key"));
+        } finally {
+            near.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package one.tranic.mongoban.api.data;
+
+import org.bson.BsonBinary;
+import org.bson.BsonString;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IPAddressTest {
+    @Test
+    void parsesIPv4Literals() {
+        assertArrayEquals(new byte[]{(byte) 203, 0, 113, 7}, IPAddress.parse("203.0.113.7").bytes());
+        assertArrayEquals(new byte[]{0, 0, 0, 0}, IPAddress.parse("0.0.0.0").bytes());
+        assertArrayEquals(new byte[]{-1, -1, -1, -1}, IPAddress.parse("255.255.255.255").bytes());
+    }
+
+    @Test
+    void parsesIPv6Literals() {
+        assertEquals("2001:db8:0:0:0:0:0:1", IPAddress.parse("2001:db8::1").toString());
+        assertEquals("2001:db8:0:0:0:0:0:1", IPAddress.parse("2001:DB8:0:0:0:0:0:1").toString());
+        assertEquals("0:0:0:0:0:0:0:0", IPAddress.parse("::").toString());
+        assertEquals("0:0:0:0:0:0:0:1", IPAddress.parse("::1").toString());
+        assertEquals("fe80:0:0:0:0:0:0:0", IPAddress.parse("fe80::").toString());
+        assertEquals("2001:db8:0:0:0:0:c000:280", IPAddress.parse("2001:db8::192.0.2.128").toString());
+    }
+
+    @Test
+    void canonicalisesEquivalentForms() {
+        assertEquals(IPAddress.parse("2001:db8::1"), IPAddress.parse("[2001:0db8:0000::0001]"));
+        assertEquals(IPAddress.parse("fe80::1"), IPAddress.parse("fe80::1%eth0"));
+        assertEquals("203.0.113.7", IPAddress.canonical("203.0.113.7"));
+        assertEquals("2001:db8:0:0:0:0:0:1", IPAddress.canonical("2001:DB8::0:1"));
+    }
+
+    @Test
+    void mapsIPv4MappedAddressesToIPv4() {
+        IPAddress mapped = IPAddress.parse("::ffff:203.0.113.7");
+        assertNotNull(mapped);
+        assertEquals(4, mapped.bytes().length);
+        assertEquals(IPAddress.parse("203.0.113.7"), mapped);
+        assertEquals(IPAddress.parse("203.0.113.7"), IPAddress.parse("::ffff:cb00:7107"));
+    }
+
+    @Test
+    void rejectsMalformedLiterals() {
+        assertNull(IPAddress.parse(null));
+        assertNull(IPAddress.parse(""));
+        assertNull(IPAddress.parse("256.0.0.1"));
+        assertNull(IPAddress.parse("1.2.3"));
+        assertNull(IPAddress.parse("1.2.3.4.5"));
+        assertNull(IPAddress.parse("1..2.3"));
+        assertNull(IPAddress.parse("1.2.3.-4"));
+        assertNull(IPAddress.parse("1:2:3:4:5:6:7:8:9"));
+        assertNull(IPAddress.parse("1::2::3"));
+        assertNull(IPAddress.parse("12345::"));
+        assertNull(IPAddress.parse("::g"));
+    }
+
+    @Test
+    void neverResolvesHostNames() {
+        assertNull(IPAddress.parse("cafe"));
+        assertNull(IPAddress.parse("bad"));
+        assertNull(IPAddress.parse("localhost"));
+        assertNull(IPAddress.parse("example.com"));
+        assertEquals("cafe", IPAddress.canonical("cafe"));
+        assertEquals("cafe", IPAddress.toBson("cafe"));
+    }
+
+    @Test
+    void agreesWithInetAddress() throws Exception {
+        String[] literals = {"192.0.2.1", "2001:db8::8:800:200c:417a", "ff01::101", "::ffff:192.0.2.1", "1:2:3:4:5:6:7:8", "::2:3:4:5:6:7:8"};
+        for (String literal : literals) {
+            InetAddress expected = InetAddress.getByName(literal);
+            assertArrayEquals(expected.getAddress(), IPAddress.parse(literal).bytes(), literal);
+            assertEquals(expected, IPAddress.parse(literal).toInetAddress(), literal);
+        }
+    }
+
+    @Test
+    void roundTripsThroughBinary() {
+        for (String literal : new String[]{"203.0.113.7", "2001:db8::1"}) {
+            IPAddress address = IPAddress.parse(literal);
+            Binary binary = address.toBinary();
+
+            assertEquals(address.bytes().length, binary.getData().length);
+            assertEquals(address, IPAddress.fromBson(binary));
+            assertEquals(address, IPAddress.fromBson(new BsonBinary(binary.getData())));
+            assertEquals(binary, IPAddress.toBson(literal));
+        }
+    }
+
+    @Test
+    void readsLegacyStrings() {
+        assertEquals(IPAddress.parse("2001:db8::1"), IPAddress.fromBson("2001:0db8::1"));
+        assertEquals(IPAddress.parse("203.0.113.7"), IPAddress.fromBson(new BsonString("203.0.113.7")));
+        assertEquals("2001:db8:0:0:0:0:0:1", IPAddress.read("2001:DB8::1"));
+        assertNull(IPAddress.fromBson(new Binary(new byte[5])));
+        assertNull(IPAddress.fromBson(42));
+    }
+}
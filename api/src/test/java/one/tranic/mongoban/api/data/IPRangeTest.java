@@ -0,0 +1,49 @@
+package one.tranic.mongoban.api.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IPRangeTest {
+    @Test
+    void clearsTheHostBits() {
+        assertEquals("203.0.113.0/24", IPRange.parse("203.0.113.77/24").toString());
+        assertEquals("10.0.0.0/9", IPRange.parse("10.127.255.255/9").toString());
+        assertEquals("2001:db8:0:0:0:0:0:0/32", IPRange.parse("2001:db8:ffff::1/32").toString());
+        assertEquals(IPRange.parse("203.0.113.0/24"), IPRange.parse(" 203.0.113.9 / 24 "));
+    }
+
+    @Test
+    void rejectsMalformedRanges() {
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("203.0.113.0"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("/24"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("203.0.113.0/"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("203.0.113.0/33"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("2001:db8::/129"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("203.0.113.0/-1"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("203.0.113.0/x"));
+    }
+
+    @Test
+    void neverResolvesHostNames() {
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("cafe/16"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("bad/8"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("localhost/8"));
+        assertThrows(IllegalArgumentException.class, () -> IPRange.parse("example.com/24"));
+    }
+
+    @Test
+    void flagsRangesWiderThanTheMinimumPrefix() {
+        assertTrue(IPRange.parse("0.0.0.0/0").isTooWide());
+        assertTrue(IPRange.parse("128.0.0.0/1").isTooWide());
+        assertTrue(IPRange.parse("10.0.0.0/7").isTooWide());
+        assertFalse(IPRange.parse("10.0.0.0/8").isTooWide());
+
+        assertTrue(IPRange.parse("::/0").isTooWide());
+        assertTrue(IPRange.parse("2001::/31").isTooWide());
+        assertFalse(IPRange.parse("2001:db8::/32").isTooWide());
+    }
+}
@@ -0,0 +1,71 @@
+package one.tranic.mongoban.api.database;
+
+import com.mongodb.client.model.UpdateOneModel;
+import one.tranic.mongoban.api.data.IPAddress;
+import one.tranic.mongoban.api.database.codec.Codecs;
+import one.tranic.mongoban.api.parse.time.ExpiryParser;
+import one.tranic.t.base.command.Operator;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseBanApplicationTest {
+    @Test
+    void prefersTheStoredExpiry() {
+        Document banDoc = new Document("duration", "forever").append("expiresAt", new Date(1_700_000_000_000L));
+        assertEquals(1_700_000_000_000L, DatabaseBanApplication.expiresAt(banDoc));
+    }
+
+    @Test
+    void fallsBackToTheDurationOfLegacyBans() {
+        assertEquals(ExpiryParser.NEVER, DatabaseBanApplication.expiresAt(new Document("duration", "forever")));
+        assertEquals(ExpiryParser.NEVER, DatabaseBanApplication.expiresAt(new Document("duration", "forever").append("expiresAt", null)));
+        assertEquals(ExpiryParser.EXPIRED, DatabaseBanApplication.expiresAt(new Document()));
+
+        long before = System.currentTimeMillis();
+        long expiresAt = DatabaseBanApplication.expiresAt(new Document("duration", "7d"));
+        assertTrue(expiresAt >= before + TimeUnit.DAYS.toMillis(7));
+    }
+
+    @Test
+    void writesTheSameBanFieldsForEveryPlayer() {
+        UUID player = UUID.randomUUID();
+        Operator operator = new Operator("admin", null);
+        Document updateDoc = DatabaseBanApplication.player.banUpdate(player, "Steve", operator, "forever", ExpiryParser.NEVER, "203.0.113.7", null);
+
+        assertEquals("Steve", updateDoc.getString("name"));
+        assertEquals("steve", updateDoc.getString("nameLower"));
+        assertEquals(IPAddress.parse("203.0.113.7").toBinary(), updateDoc.get("ip"));
+        assertEquals("<Banned by the server>", updateDoc.getString("reason"));
+        assertEquals(ExpiryParser.toDate(ExpiryParser.NEVER), updateDoc.get("expiresAt"));
+
+        Document addressOnly = DatabaseBanApplication.player.banUpdate(null, "Steve", operator, "forever", ExpiryParser.NEVER, "203.0.113.7", "proxy");
+        assertFalse(addressOnly.containsKey("name"));
+        assertFalse(addressOnly.containsKey("nameLower"));
+        assertEquals("proxy", addressOnly.getString("reason"));
+    }
+
+    @Test
+    void upsertsBansByPlayer() {
+        UUID player = UUID.randomUUID();
+        Document updateDoc = new Document("reason", "proxy");
+        UpdateOneModel<Document> model = DatabaseBanApplication.player.banUpsert(player, updateDoc);
+
+        assertTrue(model.getOptions().isUpsert());
+        assertEquals(new Document("$set", updateDoc), model.getUpdate());
+        CodecRegistry registry = CodecRegistries.withUuidRepresentation(Codecs.REGISTRY, UuidRepresentation.STANDARD);
+        assertEquals(new BsonDocument("id", new BsonBinary(player)), model.getFilter().toBsonDocument(BsonDocument.class, registry));
+    }
+}
@@ -0,0 +1,164 @@
+package one.tranic.mongoban.api.database;
+
+import one.tranic.mongoban.api.data.IPAddress;
+import one.tranic.t.utils.Collections;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseBanBatcherTest {
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+    private static final IPAddress HOME = IPAddress.parse("203.0.113.7");
+    private static final IPAddress WORK = IPAddress.parse("2001:db8::7");
+
+    private static RawBsonDocument ban(String name, UUID uuid, IPAddress ip) {
+        BsonDocument banDoc = new BsonDocument("name", new BsonString(name));
+        if (uuid != null) banDoc.append("id", new BsonBinary(uuid));
+        if (ip != null) banDoc.append("ip", new BsonBinary(ip.bytes()));
+        return new RawBsonDocument(banDoc, new BsonDocumentCodec());
+    }
+
+    private static void eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static List<String> names(List<RawBsonDocument> banDocs) {
+        return banDocs.stream().map(banDoc -> banDoc.getString("name").getValue()).sorted().toList();
+    }
+
+    @Test
+    void handsEachLookupItsOwnMatches() {
+        List<RawBsonDocument> stored = List.of(ban("alice", ALICE, null), ban("home", null, HOME), ban("bob", BOB, WORK));
+        List<Set<UUID>> queries = new CopyOnWriteArrayList<>();
+        DatabaseBanBatcher batcher = new DatabaseBanBatcher((uuids, addresses) -> {
+            queries.add(Set.copyOf(uuids));
+            return CompletableFuture.completedFuture(stored);
+        }, 0, 10);
+
+        assertEquals(List.of("alice", "home"), names(batcher.lookup(ALICE, HOME)));
+        assertEquals(List.of("bob"), names(batcher.lookup(UUID.randomUUID(), WORK)));
+        assertEquals(List.of(), names(batcher.lookup(UUID.randomUUID(), IPAddress.parse("198.51.100.1"))));
+        assertEquals(3, queries.size());
+        assertEquals(Set.of(ALICE), queries.getFirst());
+        batcher.close();
+    }
+
+    @Test
+    void combinesLookupsQueuedBehindABatchInFlight() throws Exception {
+        List<Set<UUID>> queries = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<List<RawBsonDocument>>> pending = new CopyOnWriteArrayList<>();
+        DatabaseBanBatcher batcher = new DatabaseBanBatcher((uuids, addresses) -> {
+            queries.add(Set.copyOf(uuids));
+            CompletableFuture<List<RawBsonDocument>> banDocs = new CompletableFuture<>();
+            pending.add(banDocs);
+            return banDocs;
+        }, 100, 100);
+
+        try {
+            CompletableFuture<List<RawBsonDocument>> first = batcher.lookupAsync(ALICE, HOME);
+            assertEquals(1, queries.size());
+
+            List<CompletableFuture<List<RawBsonDocument>>> queued = Collections.newArrayList();
+            queued.add(batcher.lookupAsync(BOB, WORK));
+            for (int i = 0; i < 5; i++) queued.add(batcher.lookupAsync(UUID.randomUUID(), HOME));
+            // Queued lookups wait for the window, not for the batch in flight.
+            assertEquals(1, queries.size());
+            eventually(() -> queries.size() == 2);
+            assertFalse(first.isDone());
+
+            pending.get(0).complete(List.of());
+            pending.get(1).complete(List.of(ban("bob", BOB, null)));
+            assertEquals(List.of(), names(first.get(5, TimeUnit.SECONDS)));
+            assertEquals(List.of("bob"), names(queued.getFirst().get(5, TimeUnit.SECONDS)));
+            for (CompletableFuture<List<RawBsonDocument>> lookup : queued.subList(1, queued.size()))
+                assertEquals(List.of(), names(lookup.get(5, TimeUnit.SECONDS)));
+
+            assertEquals(6, queries.get(1).size());
+            assertTrue(queries.get(1).contains(BOB));
+        } finally {
+            batcher.close();
+        }
+    }
+
+    @Test
+    void sendsFullBatchesWithoutWaitingForTheWindow() throws Exception {
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        CompletableFuture<List<RawBsonDocument>> inFlight = new CompletableFuture<>();
+        DatabaseBanBatcher batcher = new DatabaseBanBatcher((uuids, addresses) -> {
+            sizes.add(uuids.size());
+            return sizes.size() == 1 ? inFlight : CompletableFuture.completedFuture(List.of());
+        }, TimeUnit.MINUTES.toMillis(1), 2);
+
+        try {
+            CompletableFuture<List<RawBsonDocument>> first = batcher.lookupAsync(UUID.randomUUID(), HOME);
+            List<CompletableFuture<List<RawBsonDocument>>> lookups = Collections.newArrayList();
+            for (int i = 0; i < 4; i++) lookups.add(batcher.lookupAsync(UUID.randomUUID(), HOME));
+
+            for (CompletableFuture<List<RawBsonDocument>> lookup : lookups) lookup.get(5, TimeUnit.SECONDS);
+            assertEquals(List.of(1, 2, 2), sizes);
+
+            inFlight.complete(List.of());
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            batcher.close();
+        }
+    }
+
+    @Test
+    void sendsQueuedLookupsOnClose() throws Exception {
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        DatabaseBanBatcher batcher = new DatabaseBanBatcher((uuids, addresses) -> {
+            sizes.add(uuids.size());
+            return sizes.size() == 1 ? new CompletableFuture<>() : CompletableFuture.completedFuture(List.of());
+        }, TimeUnit.MINUTES.toMillis(1), 100);
+
+        batcher.lookupAsync(UUID.randomUUID(), HOME);
+        CompletableFuture<List<RawBsonDocument>> queued = batcher.lookupAsync(UUID.randomUUID(), HOME);
+        batcher.close();
+
+        assertEquals(List.of(), queued.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(), names(batcher.lookupAsync(UUID.randomUUID(), WORK).get(5, TimeUnit.SECONDS)));
+        assertEquals(List.of(1, 1, 1), sizes);
+    }
+
+    @Test
+    void failsEveryLookupOfAFailedBatch() {
+        IllegalStateException failure = new IllegalStateException("down");
+        DatabaseBanBatcher thrown = new DatabaseBanBatcher((uuids, addresses) -> {
+            throw failure;
+        }, 0, 10);
+        DatabaseBanBatcher failed = new DatabaseBanBatcher((uuids, addresses) -> CompletableFuture.failedFuture(failure), 0, 10);
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> thrown.lookup(ALICE, HOME)));
+        assertSame(failure, thrown.lookupAsync(BOB, WORK).handle((banDocs, error) -> error).join());
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> failed.lookup(ALICE, HOME)));
+        thrown.close();
+        failed.close();
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseBanBatcher((uuids, addresses) -> CompletableFuture.completedFuture(List.of()), -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseBanBatcher((uuids, addresses) -> CompletableFuture.completedFuture(List.of()), 0, 0));
+    }
+}
@@ -0,0 +1,197 @@
+package one.tranic.mongoban.api.database;
+
+import one.tranic.mongoban.api.cache.InvalidationListener;
+import one.tranic.mongoban.api.cache.InvalidationSource;
+import one.tranic.t.base.cache.Cache;
+import one.tranic.t.base.cache.CacheService;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseCacheTest {
+    @Test
+    void namespacesKeysByCollectionAndField() {
+        assertEquals("mongoban:bans:name:Steve", DatabaseCache.key("bans", "name", "Steve"));
+        assertEquals("mongoban:players:name:Steve", DatabaseCache.key("players", "name", "Steve"));
+    }
+
+    @Test
+    void readsThroughAndInvalidates() {
+        MapCache backing = new MapCache();
+        DatabaseCache cache = new DatabaseCache(backing, 60, 10);
+
+        assertNull(cache.get("bans", "name", "Steve", String.class));
+        cache.put("bans", "name", "Steve", "ban", cache.stamp("bans", "name", "Steve"));
+        assertEquals("ban", cache.get("bans", "name", "Steve", String.class));
+        assertNull(cache.get("players", "name", "Steve", String.class));
+        assertEquals(60, backing.ttls.get("mongoban:bans:name:Steve"));
+
+        cache.invalidate("bans", "name", "Steve");
+        assertNull(cache.get("bans", "name", "Steve", String.class));
+    }
+
+    @Test
+    void ignoresNullLookups() {
+        MapCache backing = new MapCache();
+        DatabaseCache cache = new DatabaseCache(backing, 60, 10);
+
+        cache.put("bans", "name", null, "ban", cache.stamp("bans", "name", null));
+        assertTrue(backing.values.isEmpty());
+        assertNull(cache.get("bans", "name", null, String.class));
+    }
+
+    @Test
+    void remembersAbsentLookups() {
+        MapCache backing = new MapCache();
+        DatabaseCache cache = new DatabaseCache(backing, 60, 10);
+
+        assertFalse(cache.isAbsent("bans", "id", "Steve"));
+        cache.putAbsent("bans", "id", "Steve", cache.stamp("bans", "id", "Steve"));
+        assertTrue(cache.isAbsent("bans", "id", "Steve"));
+        assertFalse(cache.isAbsent("bans", "ip", "Steve"));
+        assertNull(cache.get("bans", "id", "Steve", String.class));
+        assertEquals(10, backing.ttls.get("mongoban:none:bans:id:Steve"));
+    }
+
+    @Test
+    void forgetsAbsenceOnInvalidation() {
+        DatabaseCache cache = new DatabaseCache(new MapCache(), 60, 10);
+
+        cache.putAbsent("bans", "id", "Steve", cache.stamp("bans", "id", "Steve"));
+        cache.invalidate("bans", "id", "Steve");
+        assertFalse(cache.isAbsent("bans", "id", "Steve"));
+    }
+
+    @Test
+    void disablesNegativeCachingWithoutATtl() {
+        MapCache backing = new MapCache();
+        DatabaseCache cache = new DatabaseCache(backing, 60, 0);
+
+        cache.putAbsent("bans", "id", "Steve", cache.stamp("bans", "id", "Steve"));
+        assertTrue(backing.values.isEmpty());
+        assertFalse(cache.isAbsent("bans", "id", "Steve"));
+    }
+
+    @Test
+    void skipsWritesThatRacedWithAnInvalidation() {
+        MapCache backing = new MapCache();
+        DatabaseCache cache = new DatabaseCache(backing, 60, 10);
+
+        long stamp = cache.stamp("bans", "id", "Steve");
+        cache.invalidate("bans", "id", "Steve");
+        cache.put("bans", "id", "Steve", "ban", stamp);
+        cache.putAbsent("bans", "id", "Steve", stamp);
+        assertTrue(backing.values.isEmpty());
+
+        cache.put("bans", "id", "Steve", "ban", cache.stamp("bans", "id", "Steve"));
+        assertEquals("ban", cache.get("bans", "id", "Steve", String.class));
+    }
+
+    @Test
+    void skipsWritesThatRacedWithARemoteInvalidation() {
+        SharedMapCache backing = new SharedMapCache();
+        DatabaseCache cache = new DatabaseCache(backing, 60, 10);
+
+        long stamp = cache.stamp("bans", "id", "Steve");
+        long other = cache.stamp("bans", "id", "Alex");
+        backing.listener.invalidated("mongoban:none:bans:id:Steve");
+        cache.putAbsent("bans", "id", "Steve", stamp);
+        assertFalse(cache.isAbsent("bans", "id", "Steve"));
+
+        cache.putAbsent("bans", "id", "Alex", other);
+        assertTrue(cache.isAbsent("bans", "id", "Alex"));
+
+        long cleared = cache.stamp("bans", "id", "Alex");
+        backing.listener.invalidated(null);
+        cache.put("bans", "id", "Alex", "ban", cleared);
+        assertNull(cache.get("bans", "id", "Alex", String.class));
+    }
+
+    @Test
+    void passesThroughWithoutACache() {
+        DatabaseCache cache = new DatabaseCache(null, 60, 10);
+
+        cache.put("bans", "name", "Steve", "ban", cache.stamp("bans", "name", "Steve"));
+        assertNull(cache.get("bans", "name", "Steve", String.class));
+        cache.invalidate("bans", "name", "Steve");
+    }
+
+    @Test
+    void treatsCacheFailuresAsMisses() {
+        MapCache backing = new MapCache();
+        backing.failing = true;
+        DatabaseCache cache = new DatabaseCache(backing, 60, 10);
+
+        cache.put("bans", "name", "Steve", "ban", cache.stamp("bans", "name", "Steve"));
+        assertNull(cache.get("bans", "name", "Steve", String.class));
+        cache.invalidate("bans", "name", "Steve");
+    }
+
+    static class MapCache implements Cache, CacheService {
+        final Map<String, Object> values = new ConcurrentHashMap<>();
+        final Map<String, Long> ttls = new ConcurrentHashMap<>();
+        volatile boolean failing;
+
+        @Override
+        public CacheService getService() {
+            return this;
+        }
+
+        @Override
+        public <T> Optional<T> get(String key, Class<T> type) {
+            check();
+            return Optional.ofNullable(values.get(key)).filter(type::isInstance).map(type::cast);
+        }
+
+        @Override
+        public String get(String key) {
+            check();
+            Object value = values.get(key);
+            return value == null ? "" : value.toString();
+        }
+
+        @Override
+        public void put(String key, Object value, long ttl) {
+            check();
+            values.put(key, value);
+            ttls.put(key, ttl);
+        }
+
+        @Override
+        public void invalidate(String key) {
+            check();
+            values.remove(key);
+        }
+
+        @Override
+        public void invalidateAll() {
+            check();
+            values.clear();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void check() {
+            if (failing) throw new IllegalStateException("cache down");
+        }
+    }
+
+    static class SharedMapCache extends MapCache implements InvalidationSource {
+        InvalidationListener listener;
+
+        @Override
+        public void addInvalidationListener(@NotNull InvalidationListener listener) {
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package one.tranic.mongoban.api.database;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseIndexesTest {
+    private static final List<DatabaseIndexes.Definition> DEFINITIONS = DatabaseIndexes.definitions("mongo_ban", "mongo_player", "mongo_warn");
+
+    private static Map<String, DatabaseIndexes.Definition> byKey() {
+        return DEFINITIONS.stream().collect(Collectors.toMap(DatabaseIndexes.Definition::key, definition -> definition));
+    }
+
+    private static BsonDocument keys(DatabaseIndexes.Definition definition) {
+        return definition.keys().toBsonDocument();
+    }
+
+    @Test
+    void namesEveryIndexUniquely() {
+        Set<String> keys = new HashSet<>();
+        for (DatabaseIndexes.Definition definition : DEFINITIONS) assertTrue(keys.add(definition.key()), definition.key());
+    }
+
+    @Test
+    void indexesTheFieldsEveryQueryFiltersOn() {
+        Map<String, DatabaseIndexes.Definition> definitions = byKey();
+
+        assertEquals(Set.of("mongo_ban.id", "mongo_ban.ip", "mongo_ban.nameLower", "mongo_ban.range", "mongo_ban.expiresAt_ttl",
+                "mongo_player.id", "mongo_player.nameLower", "mongo_player.ip",
+                "mongo_warn.id", "mongo_warn.playerId"), definitions.keySet());
+        assertEquals(new BsonDocument("ip", new BsonInt32(1)), keys(definitions.get("mongo_ban.ip")));
+        assertEquals(new BsonDocument("playerId", new BsonInt32(1)), keys(definitions.get("mongo_warn.playerId")));
+    }
+
+    @Test
+    void keepsBanIndexesSparse() {
+        for (DatabaseIndexes.Definition definition : DEFINITIONS) {
+            if (!definition.collection().equals("mongo_ban") || definition.options().getExpireAfter(TimeUnit.SECONDS) != null) continue;
+            assertTrue(definition.options().isSparse(), definition.key());
+        }
+        assertFalse(byKey().get("mongo_player.id").options().isSparse());
+    }
+
+    @Test
+    void reapsExpiredBansWithATtlIndex() {
+        DatabaseIndexes.Definition ttl = byKey().get("mongo_ban.expiresAt_ttl");
+
+        assertEquals(new BsonDocument("expiresAt", new BsonInt32(1)), keys(ttl));
+        assertEquals(0L, ttl.options().getExpireAfter(TimeUnit.SECONDS));
+        assertFalse(ttl.options().isSparse());
+        for (DatabaseIndexes.Definition definition : DEFINITIONS)
+            if (definition != ttl) assertNull(definition.options().getExpireAfter(TimeUnit.SECONDS), definition.key());
+    }
+}
@@ -0,0 +1,50 @@
+package one.tranic.mongoban.api.database;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DatabaseMigrationTest {
+    private static BsonDocument render(Bson bson) {
+        return bson.toBsonDocument();
+    }
+
+    @Test
+    void selectsOnlyNamesWithoutANormalizedForm() {
+        assertEquals(BsonDocument.parse("{$and: [{name: {$type: 2}}, {nameLower: {$exists: false}}]}"),
+                render(DatabaseMigration.UNNORMALIZED_NAMES));
+    }
+
+    @Test
+    void lowersNamesServerSide() {
+        assertEquals(List.of(BsonDocument.parse("{$set: {nameLower: {$toLower: '$name'}}}")),
+                DatabaseMigration.NORMALIZE_NAMES.stream().map(DatabaseMigrationTest::render).toList());
+    }
+
+    @Test
+    void normalizesNamesIndependentlyOfTheDefaultLocale() {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            assertEquals("steve_it", DatabasePlayerApplication.normalizeName("Steve_IT"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+        assertNull(DatabasePlayerApplication.normalizeName(null));
+    }
+
+    @Test
+    void writesTheNormalizedNameWithEveryLogin() {
+        Document set = DatabasePlayerApplication.playerUpdate("Steve", List.of("203.0.113.7")).getFirst().get("$set", Document.class);
+
+        assertEquals(new Document("$literal", "Steve"), set.get("name"));
+        assertEquals(new Document("$literal", "steve"), set.get("nameLower"));
+    }
+}
@@ -0,0 +1,111 @@
+package one.tranic.mongoban.api.database;
+
+import one.tranic.mongoban.api.data.IPRange;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IPRangeTrieTest {
+    private static byte[] ip(String text) {
+        try {
+            return InetAddress.getByName(text).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Test
+    void matchesTheMostSpecificRange() {
+        IPRangeTrie<String> trie = new IPRangeTrie<>();
+        trie.put(IPRange.parse("10.0.0.0/8"), "wide");
+        trie.put(IPRange.parse("10.1.0.0/16"), "narrow");
+        trie.put(IPRange.parse("10.1.2.3/32"), "host");
+
+        assertEquals("host", trie.match(ip("10.1.2.3")));
+        assertEquals("narrow", trie.match(ip("10.1.2.4")));
+        assertEquals("wide", trie.match(ip("10.2.0.1")));
+        assertNull(trie.match(ip("11.0.0.1")));
+    }
+
+    @Test
+    void matchesBranchingRanges() {
+        IPRangeTrie<String> trie = new IPRangeTrie<>();
+        trie.put(IPRange.parse("203.0.113.0/25"), "low");
+        trie.put(IPRange.parse("203.0.113.128/25"), "high");
+
+        assertEquals("low", trie.match(ip("203.0.113.1")));
+        assertEquals("high", trie.match(ip("203.0.113.200")));
+        assertNull(trie.match(ip("203.0.112.255")));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void keepsIPv4AndIPv6Apart() {
+        IPRangeTrie<String> trie = new IPRangeTrie<>();
+        trie.put(IPRange.parse("0.0.0.0/0"), "v4");
+        trie.put(IPRange.parse("2001:db8::/32"), "v6");
+
+        assertEquals("v4", trie.match(ip("198.51.100.7")));
+        assertEquals("v6", trie.match(ip("2001:db8:1::1")));
+        assertNull(trie.match(ip("2001:db9::1")));
+    }
+
+    @Test
+    void replacesAnIdenticalRange() {
+        IPRangeTrie<String> trie = new IPRangeTrie<>();
+        trie.put(IPRange.parse("198.51.100.0/24"), "first");
+        trie.put(IPRange.parse("198.51.100.77/24"), "second");
+
+        assertEquals(1, trie.size());
+        assertEquals("second", trie.get(IPRange.parse("198.51.100.0/24")));
+    }
+
+    @Test
+    void removeKeepsOverlappingRanges() {
+        IPRangeTrie<String> trie = new IPRangeTrie<>();
+        trie.put(IPRange.parse("10.0.0.0/8"), "wide");
+        trie.put(IPRange.parse("10.1.0.0/16"), "narrow");
+        trie.put(IPRange.parse("10.1.1.0/24"), "narrower");
+
+        trie.remove(IPRange.parse("10.1.0.0/16"));
+
+        assertEquals(2, trie.size());
+        assertNull(trie.get(IPRange.parse("10.1.0.0/16")));
+        assertEquals("narrower", trie.match(ip("10.1.1.1")));
+        assertEquals("wide", trie.match(ip("10.1.2.1")));
+
+        trie.remove(IPRange.parse("10.0.0.0/8"));
+        assertNull(trie.match(ip("10.1.2.1")));
+        assertEquals("narrower", trie.match(ip("10.1.1.1")));
+    }
+
+    @Test
+    void removingAnUnknownRangeIsANoOp() {
+        IPRangeTrie<String> trie = new IPRangeTrie<>();
+        trie.put(IPRange.parse("10.1.0.0/16"), "narrow");
+
+        trie.remove(IPRange.parse("10.0.0.0/8"));
+        trie.remove(IPRange.parse("10.1.1.0/24"));
+
+        assertEquals(1, trie.size());
+        assertEquals("narrow", trie.match(ip("10.1.1.1")));
+    }
+
+    @Test
+    void clearEmptiesTheTrie() {
+        IPRangeTrie<String> trie = new IPRangeTrie<>();
+        trie.put(IPRange.parse("10.0.0.0/8"), "v4");
+        trie.put(IPRange.parse("2001:db8::/32"), "v6");
+
+        trie.clear();
+
+        assertTrue(trie.isEmpty());
+        assertNull(trie.match(ip("10.0.0.1")));
+        assertNull(trie.match(ip("2001:db8::1")));
+    }
+}
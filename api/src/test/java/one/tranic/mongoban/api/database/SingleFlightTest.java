@@ -0,0 +1,120 @@
+package one.tranic.mongoban.api.database;
+
+import one.tranic.t.utils.Collections;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    @Test
+    void coalescesConcurrentCalls() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<String> leader = executor.submit(() -> flight.run("key", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "value";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> followers = Collections.newArrayList();
+            for (int i = 0; i < 7; i++) followers.add(executor.submit(() -> flight.run("key", () -> {
+                calls.incrementAndGet();
+                return "other";
+            })));
+            // Give the followers time to join the call in flight before releasing it.
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void releasesTheKeyOnceCompleted() {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, (int) flight.run("key", calls::incrementAndGet));
+        assertEquals(2, (int) flight.run("key", calls::incrementAndGet));
+        assertEquals(3, (int) flight.run("other", calls::incrementAndGet));
+    }
+
+    @Test
+    void releasesTheKeyAfterAFailure() {
+        SingleFlight flight = new SingleFlight();
+
+        assertThrows(IllegalStateException.class, () -> flight.run("key", () -> {
+            throw new IllegalStateException("down");
+        }));
+        assertEquals("value", flight.run("key", () -> "value"));
+    }
+
+    @Test
+    void sharesPendingAsyncCalls() {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.runAsync("key", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = flight.runAsync("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        assertFalse(second.isDone());
+
+        pending.complete("value");
+        assertSame(pending, first);
+        assertEquals("value", second.join());
+        assertEquals(1, calls.get());
+
+        assertEquals("next", flight.runAsync("key", () -> CompletableFuture.completedFuture("next")).join());
+    }
+
+    @Test
+    void propagatesAsyncFailuresToFollowers() {
+        SingleFlight flight = new SingleFlight();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        flight.runAsync("key", () -> pending);
+        CompletableFuture<String> follower = flight.runAsync("key", () -> CompletableFuture.completedFuture("other"));
+        pending.completeExceptionally(new IllegalStateException("down"));
+
+        assertTrue(follower.isCompletedExceptionally());
+        assertEquals("fresh", flight.runAsync("key", () -> CompletableFuture.completedFuture("fresh")).join());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
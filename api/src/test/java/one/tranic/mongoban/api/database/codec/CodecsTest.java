@@ -0,0 +1,221 @@
+package one.tranic.mongoban.api.database.codec;
+
+import one.tranic.mongoban.api.data.IPBanInfo;
+import one.tranic.mongoban.api.data.PlayerBanInfo;
+import one.tranic.mongoban.api.data.PlayerInfo;
+import one.tranic.mongoban.api.data.PlayerWarnInfo;
+import one.tranic.mongoban.api.parse.time.ExpiryParser;
+import one.tranic.t.base.command.Operator;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CodecsTest {
+    private static final CodecRegistry REGISTRY = CodecRegistries.withUuidRepresentation(Codecs.REGISTRY, UuidRepresentation.STANDARD);
+    private static final UUID PLAYER = UUID.randomUUID();
+    private static final Operator OPERATOR = new Operator("admin", UUID.randomUUID());
+
+    private static <T> BsonDocument encode(T value, Class<T> type) {
+        BsonDocument document = new BsonDocument();
+        REGISTRY.get(type).encode(new BsonDocumentWriter(document), value, EncoderContext.builder().build());
+        return document;
+    }
+
+    private static <T> T decode(BsonDocument document, Class<T> type) {
+        return REGISTRY.get(type).decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    /**
+     * Keeps only the fields a projection includes, as the server does.
+     */
+    private static BsonDocument project(BsonDocument document, Bson projection) {
+        BsonDocument fields = projection.toBsonDocument(BsonDocument.class, REGISTRY);
+        BsonDocument projected = new BsonDocument();
+        for (String key : document.keySet()) {
+            if (fields.containsKey(key) && fields.get(key).asNumber().intValue() == 1) projected.put(key, document.get(key));
+        }
+        return projected;
+    }
+
+    private static <T> void assertProjectionSuffices(T value, Class<T> type, Bson projection) {
+        BsonDocument document = encode(value, type);
+        BsonDocument projected = project(document, projection);
+
+        assertEquals(encode(decode(document, type), type), encode(decode(projected, type), type));
+    }
+
+    private static void assertOperator(Operator expected, Operator actual) {
+        assertEquals(expected.name(), actual.name());
+        assertEquals(expected.uuid(), actual.uuid());
+    }
+
+    @Test
+    void roundTripsPlayerBans() {
+        PlayerBanInfo ban = new PlayerBanInfo(PLAYER, "Steve", OPERATOR, "7d", "griefing", 1_700_000_000_000L);
+        BsonDocument document = encode(ban, PlayerBanInfo.class);
+
+        assertEquals(new BsonBinary(PLAYER), document.get("id"));
+        assertEquals(new BsonString("steve"), document.get("nameLower"));
+        assertEquals(new BsonDateTime(1_700_000_000_000L), document.get("expiresAt"));
+
+        PlayerBanInfo decoded = decode(document, PlayerBanInfo.class);
+        assertEquals(ban.uuid(), decoded.uuid());
+        assertEquals(ban.name(), decoded.name());
+        assertOperator(ban.operator(), decoded.operator());
+        assertEquals(ban.duration(), decoded.duration());
+        assertEquals(ban.reason(), decoded.reason());
+        assertEquals(ban.expiresAt(), decoded.expiresAt());
+    }
+
+    @Test
+    void roundTripsPermanentBans() {
+        PlayerBanInfo ban = new PlayerBanInfo(null, "Alex", new Operator("CONSOLE", null), "forever", "cheating");
+        BsonDocument document = encode(ban, PlayerBanInfo.class);
+
+        assertEquals(BsonType.NULL, document.get("id").getBsonType());
+        assertEquals(BsonType.NULL, document.get("expiresAt").getBsonType());
+
+        PlayerBanInfo decoded = decode(document, PlayerBanInfo.class);
+        assertNull(decoded.uuid());
+        assertNull(decoded.operator().uuid());
+        assertEquals(ExpiryParser.NEVER, decoded.expiresAt());
+    }
+
+    @Test
+    void writesNullStringFields() {
+        PlayerBanInfo ban = new PlayerBanInfo(PLAYER, null, OPERATOR, null, null, ExpiryParser.NEVER);
+        BsonDocument document = encode(ban, PlayerBanInfo.class);
+
+        assertEquals(BsonNull.VALUE, document.get("name"));
+        assertEquals(BsonNull.VALUE, document.get("nameLower"));
+        assertEquals(BsonNull.VALUE, document.get("reason"));
+
+        PlayerBanInfo decoded = decode(document, PlayerBanInfo.class);
+        assertNull(decoded.name());
+        assertNull(decoded.duration());
+        assertNull(decoded.reason());
+
+        BsonDocument warning = encode(new PlayerWarnInfo(PLAYER, OPERATOR, "w1", "forever", null), PlayerWarnInfo.class);
+        assertEquals(BsonNull.VALUE, warning.get("reason"));
+        assertNull(decode(warning, PlayerWarnInfo.class).reason());
+
+        BsonDocument ipBan = encode(new IPBanInfo(null, OPERATOR, "forever", null, ExpiryParser.NEVER), IPBanInfo.class);
+        assertEquals(BsonNull.VALUE, ipBan.get("ip"));
+        assertNull(decode(ipBan, IPBanInfo.class).ip());
+    }
+
+    @Test
+    void roundTripsIPBans() {
+        IPBanInfo ban = new IPBanInfo("2001:db8:0:0:0:0:0:1", OPERATOR, "30d", "proxy", 1_700_000_000_000L);
+        BsonDocument document = encode(ban, IPBanInfo.class);
+
+        assertEquals(BsonType.BINARY, document.get("ip").getBsonType());
+        assertEquals(16, document.getBinary("ip").getData().length);
+
+        IPBanInfo decoded = decode(document, IPBanInfo.class);
+        assertEquals(ban.ip(), decoded.ip());
+        assertOperator(ban.operator(), decoded.operator());
+        assertEquals(ban.duration(), decoded.duration());
+        assertEquals(ban.reason(), decoded.reason());
+        assertEquals(ban.expiresAt(), decoded.expiresAt());
+    }
+
+    @Test
+    void roundTripsRangeBans() {
+        IPBanInfo ban = new IPBanInfo("203.0.113.0/24", OPERATOR, "forever", "hosting provider");
+        BsonDocument document = encode(ban, IPBanInfo.class);
+
+        assertEquals(new BsonString("203.0.113.0/24"), document.get("range"));
+        assertEquals("203.0.113.0/24", decode(document, IPBanInfo.class).ip());
+    }
+
+    @Test
+    void readsLegacyDocuments() {
+        BsonDocument document = new BsonDocument("ip", new BsonString("2001:0DB8::1"))
+                .append("operator", new BsonDocument("name", new BsonString("admin")))
+                .append("duration", new BsonString("forever"))
+                .append("reason", new BsonString("legacy"));
+
+        IPBanInfo decoded = decode(document, IPBanInfo.class);
+        assertEquals("2001:db8:0:0:0:0:0:1", decoded.ip());
+        assertEquals("admin", decoded.operator().name());
+        assertEquals(ExpiryParser.NEVER, decoded.expiresAt());
+    }
+
+    @Test
+    void roundTripsWarnings() {
+        PlayerWarnInfo warning = new PlayerWarnInfo(PLAYER, OPERATOR, "abc123", "forever", "spam");
+        PlayerWarnInfo decoded = decode(encode(warning, PlayerWarnInfo.class), PlayerWarnInfo.class);
+
+        assertEquals(warning.uuid(), decoded.uuid());
+        assertOperator(warning.operator(), decoded.operator());
+        assertEquals(warning.id(), decoded.id());
+        assertEquals(warning.duration(), decoded.duration());
+        assertEquals(warning.reason(), decoded.reason());
+    }
+
+    @Test
+    void roundTripsPlayers() {
+        PlayerInfo player = new PlayerInfo("Steve", PLAYER, List.of("203.0.113.7", "2001:db8::1"));
+        BsonDocument document = encode(player, PlayerInfo.class);
+
+        assertEquals(new BsonString("steve"), document.get("nameLower"));
+        assertEquals(BsonType.BINARY, document.getArray("ip").getFirst().getBsonType());
+
+        PlayerInfo decoded = decode(document, PlayerInfo.class);
+        assertEquals("Steve", decoded.name());
+        assertEquals(PLAYER, decoded.uuid());
+        assertEquals(List.of("203.0.113.7", "2001:db8:0:0:0:0:0:1"), decoded.ip());
+    }
+
+    @Test
+    void readsUuidsFromRawValues() {
+        assertEquals(PLAYER, Codecs.uuid(new BsonBinary(PLAYER)));
+        assertEquals(PLAYER, Codecs.uuid(new BsonBinary(PLAYER, UuidRepresentation.JAVA_LEGACY)));
+        assertNull(Codecs.uuid(new BsonBinary(BsonBinarySubType.BINARY, new byte[16])));
+        assertNull(Codecs.uuid(new BsonString(PLAYER.toString())));
+        assertNull(Codecs.uuid(null));
+    }
+
+    @Test
+    void decodesProjectedRawDocuments() {
+        BsonDocument stored = encode(new PlayerBanInfo(PLAYER, "Steve", OPERATOR, "7d", "griefing", 1_700_000_000_000L), PlayerBanInfo.class);
+        stored.remove("nameLower");
+        RawBsonDocument raw = new RawBsonDocument(stored, new BsonDocumentCodec());
+
+        assertEquals(PLAYER, Codecs.uuid(raw.get("id")));
+        PlayerBanInfo decoded = raw.decode(REGISTRY.get(PlayerBanInfo.class));
+        assertEquals("Steve", decoded.name());
+        assertEquals(1_700_000_000_000L, decoded.expiresAt());
+    }
+
+    @Test
+    void decodesRecordsFromTheirProjectedFields() {
+        assertProjectionSuffices(new PlayerBanInfo(PLAYER, "Steve", OPERATOR, "7d", "griefing", 1_700_000_000_000L),
+                PlayerBanInfo.class, PlayerBanInfoCodec.FIELDS);
+        assertProjectionSuffices(new IPBanInfo("203.0.113.7", OPERATOR, "forever", "proxy"), IPBanInfo.class, IPBanInfoCodec.FIELDS);
+        assertProjectionSuffices(new PlayerWarnInfo(PLAYER, OPERATOR, "abc123", "forever", "spam"), PlayerWarnInfo.class, PlayerWarnInfoCodec.FIELDS);
+        assertProjectionSuffices(new PlayerInfo("Steve", PLAYER, List.of("203.0.113.7")), PlayerInfo.class, PlayerInfoCodec.FIELDS);
+    }
+}
@@ -0,0 +1,56 @@
+package one.tranic.mongoban.api.parse.time;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiryParserTest {
+    private static void assertFromNow(long expected, String duration) {
+        long before = System.currentTimeMillis();
+        long expiresAt = ExpiryParser.parse(duration);
+        long after = System.currentTimeMillis();
+        assertTrue(expiresAt >= before + expected && expiresAt <= after + expected, duration);
+    }
+
+    @Test
+    void neverExpiresForever() {
+        assertEquals(ExpiryParser.NEVER, ExpiryParser.parse("forever"));
+        assertEquals(ExpiryParser.NEVER, ExpiryParser.parse(" forever "));
+    }
+
+    @Test
+    void treatsAMissingDurationAsExpired() {
+        assertEquals(ExpiryParser.EXPIRED, ExpiryParser.parse(null));
+        assertEquals(ExpiryParser.EXPIRED, ExpiryParser.parse(""));
+        assertEquals(ExpiryParser.EXPIRED, ExpiryParser.parse("  "));
+    }
+
+    @Test
+    void countsRelativeDurationsFromNow() {
+        assertFromNow(TimeUnit.SECONDS.toMillis(30), "30s");
+        assertFromNow(TimeUnit.MINUTES.toMillis(5), "5m");
+        assertFromNow(TimeUnit.HOURS.toMillis(12), "12h");
+        assertFromNow(TimeUnit.DAYS.toMillis(7), "7d");
+        assertFromNow(TimeUnit.DAYS.toMillis(60), "2mo");
+        assertFromNow(TimeUnit.DAYS.toMillis(365), "1y");
+    }
+
+    @Test
+    void addsUpCombinedDurations() {
+        assertFromNow(TimeUnit.DAYS.toMillis(365 + 180), "1y6mo");
+        assertFromNow(TimeUnit.DAYS.toMillis(1) + TimeUnit.HOURS.toMillis(2) + TimeUnit.MINUTES.toMillis(3), "1d2h3m");
+    }
+
+    @Test
+    void storesOnlyKnownExpiries() {
+        assertNull(ExpiryParser.toDate(ExpiryParser.NEVER));
+        assertNull(ExpiryParser.toDate(ExpiryParser.UNKNOWN));
+        assertEquals(new Date(0), ExpiryParser.toDate(ExpiryParser.EXPIRED));
+        assertEquals(new Date(1_700_000_000_000L), ExpiryParser.toDate(1_700_000_000_000L));
+    }
+}
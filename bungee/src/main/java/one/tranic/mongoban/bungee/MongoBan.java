@@ -5,6 +5,7 @@ import one.tranic.mongoban.api.MongoDataAPI;
 import one.tranic.mongoban.api.commands.*;
 import one.tranic.mongoban.api.config.NewConfig;
 import one.tranic.mongoban.api.message.Message;
+import one.tranic.mongoban.bungee.listener.LoginListener;
 import one.tranic.t.bungee.command.warp.BungeeWrap;
 
 @Deprecated
@@ -24,6 +25,8 @@ public class MongoBan extends Plugin {
         registerCommand(new BungeeWrap(new WarnCommand<>()));
         registerCommand(new BungeeWrap(new UnWarnCommand<>()));
         registerCommand(new BungeeWrap(new MongoBanCommand<>()));
+
+        getProxy().getPluginManager().registerListener(this, new LoginListener(this));
     }
 
     private void registerCommand(net.md_5.bungee.api.plugin.Command command) {
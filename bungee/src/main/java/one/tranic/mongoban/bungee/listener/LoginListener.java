@@ -5,7 +5,9 @@ import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.connection.PendingConnection;
 import net.md_5.bungee.api.event.LoginEvent;
 import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.api.plugin.Plugin;
 import net.md_5.bungee.event.EventHandler;
+import one.tranic.mongoban.api.MongoBanAPI;
 import one.tranic.mongoban.api.message.Message;
 import one.tranic.mongoban.api.message.MessageKey;
 import one.tranic.mongoban.bungee.message.BungeeMessage;
@@ -15,13 +17,35 @@ import java.net.InetSocketAddress;
 import java.util.Objects;
 
 public class LoginListener extends one.tranic.mongoban.api.listener.Listener<LoginEvent> implements Listener {
+    private final Plugin plugin;
+
+    public LoginListener(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Checks a login on the plugin's async executor instead of the Netty I/O thread firing the event.
+     * <p>
+     * The event is held open with an intent until the ban check has been applied.
+     *
+     * @param event the login event to check
+     */
     @Override
     @EventHandler
     public void onPreLoginEvent(LoginEvent event) {
         if (!isAllowed(event)) return;
         PendingConnection connection = event.getConnection();
 
-        doIt(event, connection.getName(), connection.getUniqueId(), ((InetSocketAddress) connection.getSocketAddress()).getAddress());
+        event.registerIntent(plugin);
+        plugin.getProxy().getScheduler().runAsync(plugin, () -> {
+            try {
+                doIt(event, connection.getName(), connection.getUniqueId(), ((InetSocketAddress) connection.getSocketAddress()).getAddress());
+            } catch (Exception e) {
+                MongoBanAPI.logger.error("Failed to check the bans of {}: {}", connection.getName(), e.getMessage());
+            } finally {
+                event.completeIntent(plugin);
+            }
+        });
     }
 
     @Override
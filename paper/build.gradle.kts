@@ -27,6 +27,8 @@ tasks.shadowJar {
     relocate("one.tranic.t", "${libPackage}.tlib")
     relocate("one.tranic.irs", "${libPackage}.irs")
     relocate("com.mongodb", "${libPackage}.mongodb")
+    relocate("org.reactivestreams", "${libPackage}.reactivestreams")
+    relocate("reactor", "${libPackage}.reactor")
     relocate("redis.clients.jedis", "${libPackage}.jedis")
     relocate("org.apache.commons.pool2", "${libPackage}.pool2")
     relocate("org.json", "${libPackage}.json")
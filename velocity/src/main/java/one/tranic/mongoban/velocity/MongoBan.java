@@ -13,6 +13,7 @@ import one.tranic.mongoban.api.command.Command;
 import one.tranic.mongoban.api.commands.*;
 import one.tranic.mongoban.api.message.Message;
 import one.tranic.mongoban.api.config.NewConfig;
+import one.tranic.mongoban.velocity.listener.PlayerListener;
 import one.tranic.t.velocity.TVelocity;
 import one.tranic.t.velocity.command.source.VelocitySource;
 import one.tranic.t.velocity.command.warp.VelocityWrap;
@@ -63,6 +64,7 @@ public class MongoBan {
         }
 
         createCommands();
+        proxy.getEventManager().register(this, new PlayerListener());
     }
 
     @Subscribe
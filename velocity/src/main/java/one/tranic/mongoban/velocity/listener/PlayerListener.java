@@ -1,11 +1,14 @@
 package one.tranic.mongoban.velocity.listener;
 
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.PostOrder;
 import com.velocitypowered.api.event.ResultedEvent;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
 import com.velocitypowered.api.proxy.Player;
 import net.kyori.adventure.text.Component;
+import one.tranic.mongoban.api.data.IPBanInfo;
 import one.tranic.mongoban.api.message.Message;
 import one.tranic.mongoban.api.listener.Listener;
 import one.tranic.mongoban.api.message.MessageKey;
@@ -13,6 +16,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.net.InetAddress;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class PlayerListener extends Listener<LoginEvent> {
     @Override
@@ -29,13 +33,63 @@ public class PlayerListener extends Listener<LoginEvent> {
         );
     }
 
+    /**
+     * Checks a login on the calling thread.
+     * <p>
+     * This is not subscribed to Velocity's events, which go through {@link #onLoginEvent(LoginEvent)} instead.
+     * It is kept for callers driving the listener directly, and blocks on the database like
+     * {@link #doIt(Object, String, java.util.UUID, InetAddress)}.
+     *
+     * @param event the login event to check
+     */
     @Override
-    @Subscribe(priority = 0, order = PostOrder.CUSTOM)
     public void onPreLoginEvent(LoginEvent event) {
         if (!isAllowed(event)) return;
         Player player = event.getPlayer();
+
+        doIt(event, player.getUsername(), player.getUniqueId(), player.getRemoteAddress().getAddress());
+    }
+
+    /**
+     * Checks a login without blocking Velocity's event executor.
+     * <p>
+     * The event is suspended until the ban lookup has completed and the result has been applied.
+     *
+     * @param event the login event to check
+     * @return an {@link EventTask} resuming the event once it has been allowed or disallowed
+     */
+    @Subscribe(priority = 0, order = PostOrder.CUSTOM)
+    public EventTask onLoginEvent(LoginEvent event) {
+        if (!isAllowed(event)) return null;
+        return EventTask.resumeWhenComplete(check(event));
+    }
+
+    /**
+     * Refuses connections from banned IP addresses before encryption and Mojang authentication take place.
+     * <p>
+     * Only IP bans can be checked at this point, player bans are still checked at {@link LoginEvent}.
+     * The account of a refused connection is banned as well when it is known to use the address,
+     * see {@link #banAccount(String, IPBanInfo, InetAddress)}.
+     *
+     * @param event the pre-login event to check
+     * @return an {@link EventTask} resuming the event once the IP address has been checked
+     */
+    @Subscribe(priority = 0, order = PostOrder.CUSTOM)
+    public EventTask onPreLogin(PreLoginEvent event) {
+        if (!event.getResult().isAllowed()) return null;
+        InetAddress ip = event.getConnection().getRemoteAddress().getAddress();
+
+        return EventTask.resumeWhenComplete(findIPBan(ip).thenAccept(ipBanInfo -> {
+            if (ipBanInfo == null) return;
+            event.setResult(PreLoginEvent.PreLoginComponentResult.denied(Message.kickMessage(ipBanInfo)));
+            banAccount(event.getUsername(), ipBanInfo, ip);
+        }));
+    }
+
+    private CompletableFuture<Void> check(LoginEvent event) {
+        Player player = event.getPlayer();
         InetAddress ip = player.getRemoteAddress().getAddress();
 
-        doIt(event, player.getUsername(), player.getUniqueId(), ip);
+        return doItAsync(event, player.getUsername(), player.getUniqueId(), ip);
     }
 }